@@ -1,5 +1,7 @@
 package com.coffee.coffee_api;
 
+import com.coffee.coffee_api.audit.AuditEventType;
+import com.coffee.coffee_api.audit.AuditLog;
 import com.coffee.coffee_api.dto.AuthResp;
 import com.coffee.coffee_api.dto.LoginReq;
 import com.coffee.coffee_api.dto.RegisterReq;
@@ -25,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
  * - users: UserRepository thao tác DB (tìm user, lưu user).
  * - passwordEncoder: mã hoá/băm mật khẩu khi lưu & so khớp khi đăng nhập.
  * - jwt: sinh/parse token JWT chứa id/email/role.
+ * - audit: ghi nhật ký đăng ký/đăng nhập/đăng nhập sai (bất đồng bộ, không chặn request).
  *
  * LUỒNG CHÍNH:
  * 1) POST /api/auth/register:
@@ -62,6 +65,7 @@ public class AuthController {
     private final UserRepository users;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwt;
+    private final AuditLog audit;
 
     /**
      * ĐĂNG KÝ TÀI KHOẢN
@@ -83,6 +87,7 @@ public class AuthController {
                 .build();
 
         u = users.save(u);
+        audit.publish(AuditEventType.REGISTER, u.getId(), u.getId(), u.getEmail());
 
         String token = jwt.generate(u.getId(), u.getEmail(), u.getRole().name()); // JWT chứa id/email/role
         return ResponseEntity.ok(new AuthResp(
@@ -101,9 +106,11 @@ public class AuthController {
         User u = users.findByEmailIgnoreCase(req.email()).orElse(null);
         if (u == null || !Boolean.TRUE.equals(u.getIsActive())
                 || !passwordEncoder.matches(req.password(), u.getPasswordHash())) {
+            audit.publish(AuditEventType.LOGIN_FAILED, null, u == null ? null : u.getId(), req.email());
             return ResponseEntity.status(401).body(new AuthResp(false, null, null, null, null, null));
         }
 
+        audit.publish(AuditEventType.LOGIN_SUCCESS, u.getId(), u.getId(), null);
         String token = jwt.generate(u.getId(), u.getEmail(), u.getRole().name());
         return ResponseEntity.ok(new AuthResp(
                 true, token, u.getId(), u.getFullName(), u.getEmail(), u.getRole().name()
@@ -31,6 +31,9 @@ public class SecurityConfig {
         .authorizeHttpRequests(auth -> auth
           .requestMatchers(HttpMethod.POST, "/api/auth/register", "/api/auth/login").permitAll()
           .requestMatchers(HttpMethod.GET, "/api/public/**").permitAll()
+          .requestMatchers("/api/admin/**").hasRole("ADMIN")
+          .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()   // probe không có token
+          .requestMatchers("/actuator/**").hasRole("ADMIN")                  // metrics lộ nội bộ cache/audit/batch
           .anyRequest().authenticated()
         )
         .cors(c -> c.configurationSource(corsConfigurationSource()))
@@ -0,0 +1,34 @@
+package com.coffee.coffee_api.audit;
+
+import com.coffee.coffee_api.order.OrderPlacedEvent;
+import com.coffee.coffee_api.order.OrderStatusChangedEvent;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * AuditEventListener
+ *
+ * Ý NGHĨA:
+ * - Chuyển các sự kiện đơn hàng (OrderPlacedEvent, OrderStatusChangedEvent) thành bản ghi audit.
+ * - AFTER_COMMIT: chỉ ghi nhận thay đổi đã commit thật; fallbackExecution = true cho event phát ngoài transaction.
+ * - actorId = -1 vì event không mang người thao tác; targetId = orderId, detail ghi chủ đơn & trạng thái.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditEventListener {
+
+    private final AuditLog audit;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent e) {
+        audit.publish(AuditEventType.ORDER_PLACED, null, e.orderId(), "user=" + e.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent e) {
+        audit.publish(AuditEventType.ORDER_STATUS_CHANGED, null, e.orderId(),
+                "user=" + e.userId() + " " + e.from() + "->" + e.to());
+    }
+}
@@ -0,0 +1,34 @@
+package com.coffee.coffee_api.audit;
+
+/**
+ * Loại sự kiện audit.
+ * code được ghi xuống file (1 byte) nên KHÔNG đổi code của loại đã có; chỉ thêm mới.
+ */
+public enum AuditEventType {
+    REGISTER(1),
+    LOGIN_SUCCESS(2),
+    LOGIN_FAILED(3),
+    ROLE_CHANGED(4),
+    ORDER_PLACED(5),
+    ORDER_STATUS_CHANGED(6);
+
+    private static final AuditEventType[] BY_CODE = new AuditEventType[128];
+    static {
+        for (AuditEventType t : values()) BY_CODE[t.code] = t;
+    }
+
+    private final byte code;
+
+    AuditEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    /** Trả null nếu code không xác định (file ghi bởi phiên bản mới hơn). */
+    public static AuditEventType fromCode(byte code) {
+        return code < 0 ? null : BY_CODE[code];
+    }
+}
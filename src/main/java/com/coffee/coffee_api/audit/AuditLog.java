@@ -0,0 +1,327 @@
+package com.coffee.coffee_api.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * AuditLog
+ *
+ * Ý NGHĨA:
+ * - Ghi nhật ký audit/bảo mật (đăng ký, đăng nhập, đăng nhập sai, đổi role, chuyển trạng thái đơn)
+ *   mà KHÔNG thêm INSERT DB hay I/O đồng bộ nào vào request thread.
+ *
+ * KIẾN TRÚC:
+ * - Request thread gọi publish(): giành 1 slot trong ring buffer cấp phát sẵn (CAS trên cursor),
+ *   điền dữ liệu vào slot rồi "công bố" bằng cách ghi volatile slot.sequence.
+ * - Một writer thread duy nhất ("audit-writer") đọc slot theo thứ tự sequence, encode record
+ *   (xem AuditRecord) vào segment file memory-mapped hiện tại.
+ * - Segment đầy → force() + mở segment mới (audit-000001.log, audit-000002.log, ...).
+ *   Mỗi lần khởi động luôn mở segment mới, không ghi đè file cũ (append-only).
+ * - Giữ lại: sau mỗi lần mở segment mới, xoá các segment cũ nhất để chỉ còn max-segments file
+ *   (dung lượng đĩa tối đa ≈ max-segments × segment-bytes); max-segments = 0 → không xoá (tự dọn ngoài app).
+ * - Group fsync: force() khi đủ fsyncBatch record chưa fsync, hoặc sau fsyncIntervalMs, hoặc khi rảnh.
+ *
+ * CHÍNH SÁCH QUÁ TẢI:
+ * - Ring đầy → publish() trả false ngay và tăng bộ đếm dropped; KHÔNG bao giờ block request thread.
+ * - stop() "niêm phong" cursor (bật bit SEALED) bằng 1 thao tác atomic: producer đã CAS được trước đó chắc chắn
+ *   được writer ghi nốt; producer đến sau thấy bit SEALED → trả false, đếm dropped. Không có sự kiện nào
+ *   vừa được tính published vừa bị bỏ.
+ * - Lỗi I/O ở writer → ghi log lỗi, bỏ segment lỗi, mở segment mới (thử lại với backoff nếu vẫn lỗi);
+ *   trong lúc đó vẫn tiếp tục rút ring (đếm dropped) để producer không bị kẹt.
+ *
+ * METRICS: audit.events{result=published|dropped|written}, audit.ring.backlog, audit.fsyncs.
+ */
+@Slf4j
+@Component
+public class AuditLog implements MeterBinder {
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final long OPEN_RETRY_MIN = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long OPEN_RETRY_MAX = TimeUnit.SECONDS.toNanos(30);
+    private static final long SEALED = 1L << 62;                 // bit của cursor: đã stop(), không nhận thêm
+
+    /** Slot cấp phát sẵn; sequence = -1 nghĩa là chưa có dữ liệu. */
+    private static final class Slot {
+        volatile long sequence = -1;
+        byte type;
+        long timestamp;
+        long actorId;
+        long targetId;
+        String detail;
+    }
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long fsyncIntervalNanos;
+    private final int fsyncBatch;
+    private final int maxSegments;
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();   // sequence tiếp theo producer sẽ giành (| SEALED sau stop())
+    private volatile long drained;                        // sequence tiếp theo writer sẽ đọc
+    private volatile boolean writerParked;
+    private volatile boolean running;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+
+    private Thread writer;
+
+    // ===== chỉ writer thread truy cập =====
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private int unsynced;
+    private long lastSyncNanos;
+    private long nextOpenAttemptNanos = Long.MIN_VALUE;
+    private long openRetryNanos = OPEN_RETRY_MIN;
+
+    public AuditLog(
+            @Value("${coffee.audit.dir:data/audit}") String dir,
+            @Value("${coffee.audit.segment-bytes:67108864}") int segmentBytes,
+            @Value("${coffee.audit.ring-size:8192}") int ringSize,
+            @Value("${coffee.audit.fsync-interval-ms:50}") long fsyncIntervalMs,
+            @Value("${coffee.audit.fsync-batch:256}") int fsyncBatch,
+            @Value("${coffee.audit.max-segments:32}") int maxSegments) {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("coffee.audit.ring-size phải là lũy thừa của 2: " + ringSize);
+        }
+        if (segmentBytes < AuditRecord.MAX_SIZE + 4) {
+            throw new IllegalArgumentException("coffee.audit.segment-bytes quá nhỏ: " + segmentBytes);
+        }
+        this.dir = Path.of(dir);
+        this.segmentBytes = segmentBytes;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+        this.fsyncBatch = fsyncBatch;
+        this.maxSegments = maxSegments;
+        this.ring = new Slot[ringSize];
+        for (int i = 0; i < ringSize; i++) ring[i] = new Slot();
+        this.mask = ringSize - 1;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::runWriter, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Dừng writer: rút hết ring, force() và đóng segment. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        cursor.getAndAccumulate(SEALED, (c, bit) -> c | bit);   // trước running = false: writer thấy cursor cuối cùng
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Đưa 1 sự kiện vào ring buffer (an toàn đa luồng, không block, không I/O).
+     * actorId/targetId null → ghi -1. Trả false (đếm dropped) nếu ring đầy hoặc AuditLog đã stop().
+     */
+    public boolean publish(AuditEventType type, Long actorId, Long targetId, String detail) {
+        long seq;
+        do {
+            seq = cursor.get();
+            if ((seq & SEALED) != 0 || seq - drained >= ring.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!cursor.compareAndSet(seq, seq + 1));
+
+        Slot slot = ring[(int) (seq & mask)];
+        slot.type = type.code();
+        slot.timestamp = System.currentTimeMillis();
+        slot.actorId = actorId == null ? -1 : actorId;
+        slot.targetId = targetId == null ? -1 : targetId;
+        slot.detail = detail;
+        slot.sequence = seq;                    // công bố cho writer (volatile write)
+        published.increment();
+
+        if (writerParked) LockSupport.unpark(writer);
+        return true;
+    }
+
+    // ===== writer thread =====
+
+    private void runWriter() {
+        lastSyncNanos = System.nanoTime();
+        while (true) {
+            long next = drained;
+            Slot slot = ring[(int) (next & mask)];
+            if (slot.sequence == next) {
+                writeSafely(slot);
+                slot.detail = null;
+                drained = next + 1;             // trả slot lại cho producer
+                continue;
+            }
+            // running = false ⇒ cursor đã niêm phong: mọi sequence < cursor đều đã được producer giành → ghi hết rồi mới dừng
+            if (!running && (cursor.get() & ~SEALED) == next) break;
+            if (unsynced > 0) {
+                // rảnh hoặc đến hạn → group fsync những gì đang chờ
+                syncSafely();
+                continue;
+            }
+            writerParked = true;
+            if (slot.sequence != next && running) {
+                LockSupport.parkNanos(this, fsyncIntervalNanos);
+            }
+            writerParked = false;
+        }
+        syncSafely();
+        closeSegment();
+    }
+
+    // Lỗi I/O không được làm chết writer thread: log, bỏ segment hiện tại, lần ghi sau mở segment mới.
+    // InternalError: ghi vào vùng mmap khi đĩa đầy có thể gây SIGBUS → JVM ném InternalError.
+    private void writeSafely(Slot slot) {
+        boolean appended = false;
+        try {
+            appended = append(slot);
+            if (appended && (unsynced >= fsyncBatch || System.nanoTime() - lastSyncNanos >= fsyncIntervalNanos)) {
+                sync();
+            }
+        } catch (RuntimeException | InternalError e) {
+            if (!appended) dropped.increment();
+            rollAfterFailure(e);
+        }
+    }
+
+    private void syncSafely() {
+        try {
+            sync();
+        } catch (RuntimeException | InternalError e) {
+            rollAfterFailure(e);
+        }
+    }
+
+    private void rollAfterFailure(Throwable e) {
+        log.error("Ghi audit segment lỗi, bỏ segment hiện tại và mở segment mới", e);
+        unsynced = 0;
+        closeSegment();
+    }
+
+    /** Trả false (đã đếm dropped) nếu không có segment để ghi. */
+    private boolean append(Slot slot) {
+        byte[] detail = AuditRecord.detailBytes(slot.detail);
+        // luôn chừa 4 byte 0 ở cuối làm dấu kết thúc segment
+        if (segment != null && segment.remaining() < AuditRecord.sizeOf(detail) + 4) {
+            sync();
+            closeSegment();
+        }
+        if (segment == null && !openNextSegment()) {
+            dropped.increment();
+            return false;
+        }
+        AuditRecord.encode(segment, slot.type, slot.timestamp, slot.actorId, slot.targetId, detail, crc);
+        written.increment();
+        unsynced++;
+        return true;
+    }
+
+    private void sync() {
+        if (segment != null && unsynced > 0) {
+            segment.force();
+            fsyncs.increment();
+        }
+        unsynced = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Mở segment mới. Lỗi (đĩa đầy, mất quyền...) → log, thử lại sau backoff tăng dần
+     * (OPEN_RETRY_MIN → OPEN_RETRY_MAX); trong lúc chờ, sự kiện bị bỏ và đếm dropped.
+     */
+    private boolean openNextSegment() {
+        long now = System.nanoTime();
+        if (now < nextOpenAttemptNanos) return false;
+        try {
+            Files.createDirectories(dir);
+            if (segmentIndex == 0) segmentIndex = AuditLogReader.lastSegmentIndex(dir);
+            segmentIndex++;
+            Path file = dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            openRetryNanos = OPEN_RETRY_MIN;
+            pruneSegments();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Không mở được audit segment trong {}, thử lại sau {} ms",
+                    dir, TimeUnit.NANOSECONDS.toMillis(openRetryNanos), e);
+            closeSegment();
+            nextOpenAttemptNanos = now + openRetryNanos;
+            openRetryNanos = Math.min(openRetryNanos * 2, OPEN_RETRY_MAX);
+            return false;
+        }
+    }
+
+    // segment sắp theo tên = theo thời gian; segment đang ghi là mới nhất nên không bao giờ bị xoá
+    private void pruneSegments() {
+        if (maxSegments <= 0) return;
+        try {
+            List<Path> all = AuditLogReader.segments(dir);
+            for (int i = 0; i < all.size() - maxSegments; i++) {
+                Files.deleteIfExists(all.get(i));
+                log.info("Xoá audit segment cũ {} (giữ {} segment)", all.get(i).getFileName(), maxSegments);
+            }
+        } catch (IOException e) {
+            log.warn("Không xoá được audit segment cũ trong {}", dir, e);
+        }
+    }
+
+    private void closeSegment() {
+        segment = null;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Đóng audit segment lỗi", e);
+            }
+            channel = null;
+        }
+    }
+
+    // ===== thống kê =====
+
+    public long published() { return published.sum(); }
+    public long dropped() { return dropped.sum(); }
+    public long written() { return written.sum(); }
+    public long backlog() { return (cursor.get() & ~SEALED) - drained; }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audit.events", this, AuditLog::published).tag("result", "published").register(registry);
+        FunctionCounter.builder("audit.events", this, AuditLog::dropped).tag("result", "dropped").register(registry);
+        FunctionCounter.builder("audit.events", this, AuditLog::written).tag("result", "written").register(registry);
+        FunctionCounter.builder("audit.fsyncs", fsyncs, LongAdder::sum).register(registry);
+        Gauge.builder("audit.ring.backlog", this, AuditLog::backlog).register(registry);
+    }
+}
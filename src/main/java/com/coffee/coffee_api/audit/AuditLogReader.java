@@ -0,0 +1,94 @@
+package com.coffee.coffee_api.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * AuditLogReader
+ *
+ * Ý NGHĨA:
+ * - Đọc/truy vấn các segment audit do AuditLog ghi (theo thứ tự file, tức theo thời gian ghi).
+ * - Dừng đọc một segment khi gặp length = 0 (hết dữ liệu) hoặc record sai CRC (ghi dở lúc crash).
+ *
+ * DÙNG TỪ DÒNG LỆNH (không cần chạy Spring context):
+ *   java -cp coffee-api.jar -Dloader.main=com.coffee.coffee_api.audit.AuditLogReader \
+ *        org.springframework.boot.loader.launch.PropertiesLauncher \
+ *        data/audit [type=LOGIN_FAILED] [actor=42] [target=7] [since=2025-01-01T00:00:00Z]
+ */
+public final class AuditLogReader {
+
+    private AuditLogReader() {}
+
+    /** Duyệt mọi record thoả filter trong thư mục audit. */
+    public static void scan(Path dir, Predicate<AuditRecord> filter, Consumer<AuditRecord> out) throws IOException {
+        CRC32 crc = new CRC32();
+        for (Path file : segments(dir)) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                AuditRecord r;
+                while ((r = AuditRecord.decode(buf, crc)) != null) {
+                    if (filter.test(r)) out.accept(r);
+                }
+            }
+        }
+    }
+
+    public static List<AuditRecord> query(Path dir, Predicate<AuditRecord> filter) throws IOException {
+        List<AuditRecord> result = new ArrayList<>();
+        scan(dir, filter, result::add);
+        return result;
+    }
+
+    /** Danh sách segment, sắp theo số thứ tự (tên file đã zero-pad nên sort theo tên là đủ). */
+    static List<Path> segments(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(AuditLogReader::isSegment).sorted().toList();
+        }
+    }
+
+    static int lastSegmentIndex(Path dir) throws IOException {
+        List<Path> all = segments(dir);
+        if (all.isEmpty()) return 0;
+        String name = all.get(all.size() - 1).getFileName().toString();
+        return Integer.parseInt(name.substring(AuditLog.SEGMENT_PREFIX.length(),
+                name.length() - AuditLog.SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isSegment(Path p) {
+        String name = p.getFileName().toString();
+        return name.startsWith(AuditLog.SEGMENT_PREFIX) && name.endsWith(AuditLog.SEGMENT_SUFFIX);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: AuditLogReader <dir> [type=..] [actor=..] [target=..] [since=ISO-8601]");
+            System.exit(2);
+        }
+        Predicate<AuditRecord> filter = r -> true;
+        for (int i = 1; i < args.length; i++) {
+            String[] kv = args[i].split("=", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Tham số không hợp lệ: " + args[i]);
+            String v = kv[1];
+            filter = filter.and(switch (kv[0]) {
+                case "type" -> r -> r.type() == AuditEventType.valueOf(v);
+                case "actor" -> r -> r.actorId() == Long.parseLong(v);
+                case "target" -> r -> r.targetId() == Long.parseLong(v);
+                case "since" -> r -> r.timestamp() >= Instant.parse(v).toEpochMilli();
+                default -> throw new IllegalArgumentException("Không hỗ trợ filter: " + kv[0]);
+            });
+        }
+        scan(Path.of(args[0]), filter, System.out::println);
+    }
+}
@@ -0,0 +1,93 @@
+package com.coffee.coffee_api.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * AuditRecord
+ *
+ * Ý NGHĨA:
+ * - Một bản ghi audit đã đọc lên từ log, kèm codec nhị phân dùng chung cho writer (AuditLog) và AuditLogReader.
+ *
+ * ĐỊNH DẠNG (big-endian, 35 byte + detail):
+ *   int   length     độ dài cả record (kể cả length & crc); 0 = hết dữ liệu trong segment
+ *   byte  type       AuditEventType.code
+ *   long  timestamp  epoch millis
+ *   long  actorId    user thực hiện (-1 nếu không có)
+ *   long  targetId   đối tượng bị tác động: user/order id (-1 nếu không có)
+ *   short detailLen
+ *   byte[] detail    UTF-8, tối đa MAX_DETAIL byte
+ *   int   crc32      CRC32 của [type .. detail]; sai crc = record ghi dở (crash) → dừng đọc
+ */
+public record AuditRecord(AuditEventType type, long timestamp, long actorId, long targetId, String detail) {
+
+    public static final int HEADER = 4 + 1 + 8 + 8 + 8 + 2;
+    public static final int MAX_DETAIL = 512;
+    public static final int MAX_SIZE = HEADER + MAX_DETAIL + 4;
+
+    public static int sizeOf(byte[] detail) {
+        return HEADER + detail.length + 4;
+    }
+
+    public static byte[] detailBytes(String detail) {
+        if (detail == null || detail.isEmpty()) return new byte[0];
+        byte[] b = detail.getBytes(StandardCharsets.UTF_8);
+        if (b.length <= MAX_DETAIL) return b;
+        byte[] cut = new byte[MAX_DETAIL];
+        System.arraycopy(b, 0, cut, 0, MAX_DETAIL);
+        return cut;
+    }
+
+    /** Ghi 1 record tại position hiện tại của buf; caller phải chắc còn đủ sizeOf(detail) byte. */
+    public static void encode(ByteBuffer buf, byte type, long timestamp, long actorId, long targetId,
+                              byte[] detail, CRC32 crc) {
+        int start = buf.position();
+        int length = sizeOf(detail);
+        buf.putInt(length)
+           .put(type)
+           .putLong(timestamp)
+           .putLong(actorId)
+           .putLong(targetId)
+           .putShort((short) detail.length)
+           .put(detail);
+        crc.reset();
+        crc.update(buf.duplicate().position(start + 4).limit(start + length - 4));
+        buf.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Đọc 1 record tại position của buf và dời position qua record đó.
+     * Trả null khi gặp cuối dữ liệu (length = 0) hoặc record hỏng/ghi dở.
+     */
+    public static AuditRecord decode(ByteBuffer buf, CRC32 crc) {
+        int start = buf.position();
+        if (buf.remaining() < HEADER + 4) return null;
+        int length = buf.getInt(start);
+        if (length < HEADER + 4 || length > MAX_SIZE || length > buf.remaining()) return null;
+
+        crc.reset();
+        crc.update(buf.duplicate().position(start + 4).limit(start + length - 4));
+        if ((int) crc.getValue() != buf.getInt(start + length - 4)) return null;
+
+        buf.position(start + 4);
+        byte type = buf.get();
+        long timestamp = buf.getLong();
+        long actorId = buf.getLong();
+        long targetId = buf.getLong();
+        int detailLen = buf.getShort() & 0xFFFF;
+        if (detailLen != length - HEADER - 4) return null;
+        byte[] detail = new byte[detailLen];
+        buf.get(detail);
+        buf.position(start + length);
+        return new AuditRecord(AuditEventType.fromCode(type), timestamp, actorId, targetId,
+                new String(detail, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(timestamp) + " " + type + " actor=" + actorId + " target=" + targetId
+                + (detail.isEmpty() ? "" : " " + detail);
+    }
+}
@@ -0,0 +1,23 @@
+package com.coffee.coffee_api.dto;
+
+import com.coffee.coffee_api.order.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * BulkStatusReq.java
+ *
+ * Ý nghĩa:
+ * - DTO dạng record cho API admin chuyển trạng thái đơn hàng hàng loạt (POST /api/admin/orders/bulk-status).
+ *
+ * Các trường:
+ * - from: trạng thái hiện tại của các đơn cần chuyển (@NotNull).
+ * - to: trạng thái đích (@NotNull), phải là bước hợp lệ theo OrderStatus.canTransitionTo.
+ * - createdBefore: chỉ xử lý đơn tạo trước mốc này (giờ DB); null = mọi đơn tính đến lúc gọi API.
+ */
+public record BulkStatusReq(
+    @NotNull OrderStatus from,
+    @NotNull OrderStatus to,
+    LocalDateTime createdBefore
+) {}
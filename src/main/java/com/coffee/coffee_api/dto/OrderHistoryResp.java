@@ -0,0 +1,40 @@
+package com.coffee.coffee_api.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * OrderHistoryResp.java
+ *
+ * Ý nghĩa:
+ * - DTO dạng record cho API "đơn hàng của tôi" (GET /api/orders/me).
+ * - Được serialize một lần rồi lưu dạng byte[] trong OrderHistoryCache, nên giữ gọn:
+ *   chỉ các trường FE cần để hiển thị danh sách đơn.
+ *
+ * Các trường:
+ * - page, size: trang hiện tại & kích thước trang.
+ * - hasNext: còn trang sau hay không.
+ * - orders: danh sách đơn (mới nhất trước), mỗi đơn kèm các dòng hàng (items).
+ */
+public record OrderHistoryResp(
+    int page,
+    int size,
+    boolean hasNext,
+    List<OrderSummary> orders
+) {
+  public record OrderSummary(
+      Long id,
+      String code,
+      BigDecimal total,
+      String status,
+      LocalDateTime createdAt,
+      List<Line> items
+  ) {}
+
+  public record Line(
+      Long productId,
+      Integer quantity,
+      BigDecimal unitPrice
+  ) {}
+}
@@ -0,0 +1,41 @@
+package com.coffee.coffee_api.order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trạng thái của 1 batch job (bảng batch_checkpoints).
+ * - lastCreatedAt/lastId: vị trí keyset đã xử lý xong (null = chưa xử lý chunk nào).
+ * - processed: số đơn đã đổi trạng thái trong lượt chạy này.
+ * - pass: lượt quét hiện tại; hết lượt mà vẫn còn đơn phù hợp (bị SKIP LOCKED) thì quét lại từ đầu.
+ * - skippedLocked: số đơn còn phù hợp ở cuối lượt gần nhất (đang bị lock nên bị bỏ qua);
+ *   khi state = DONE mà skippedLocked > 0 → các đơn này chưa được chuyển trạng thái.
+ */
+public record BatchCheckpoint(
+    String jobName,
+    OrderStatus from,
+    OrderStatus to,
+    LocalDateTime cutoff,
+    LocalDateTime lastCreatedAt,
+    long lastId,
+    long processed,
+    int pass,
+    long skippedLocked,
+    BatchState state
+) {
+  public BatchCheckpoint advance(LocalDateTime createdAt, long id, int updated) {
+    return new BatchCheckpoint(jobName, from, to, cutoff, createdAt, id, processed + updated, pass, skippedLocked, BatchState.RUNNING);
+  }
+
+  /** Bắt đầu lượt quét mới từ đầu keyset, ghi nhận số đơn bị bỏ qua ở lượt trước. */
+  public BatchCheckpoint nextPass(long skippedLocked) {
+    return new BatchCheckpoint(jobName, from, to, cutoff, null, 0, processed, pass + 1, skippedLocked, BatchState.RUNNING);
+  }
+
+  public BatchCheckpoint running() {
+    return new BatchCheckpoint(jobName, from, to, cutoff, lastCreatedAt, lastId, processed, pass, skippedLocked, BatchState.RUNNING);
+  }
+
+  public OrderTransitionJob job() {
+    return new OrderTransitionJob(jobName, from, to, cutoff);
+  }
+}
@@ -0,0 +1,80 @@
+package com.coffee.coffee_api.order;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * BatchCheckpointStore
+ *
+ * Ý NGHĨA:
+ * - Đọc/ghi bảng batch_checkpoints bằng JdbcTemplate.
+ * - save() được gọi trong CÙNG transaction với chunk UPDATE → checkpoint luôn khớp với dữ liệu đã commit.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BatchCheckpointStore {
+
+    private static final RowMapper<BatchCheckpoint> MAPPER = (rs, i) -> new BatchCheckpoint(
+            rs.getString("job_name"),
+            OrderStatus.valueOf(rs.getString("from_status")),
+            OrderStatus.valueOf(rs.getString("to_status")),
+            rs.getObject("cutoff", LocalDateTime.class),
+            rs.getObject("last_created_at", LocalDateTime.class),
+            rs.getLong("last_id"),
+            rs.getLong("processed"),
+            rs.getInt("pass"),
+            rs.getLong("skipped_locked"),
+            BatchState.valueOf(rs.getString("state")));
+
+    private final JdbcTemplate jdbc;
+
+    public Optional<BatchCheckpoint> find(String jobName) {
+        return jdbc.query("SELECT * FROM batch_checkpoints WHERE job_name = ?", MAPPER, jobName)
+                .stream().findFirst();
+    }
+
+    public List<BatchCheckpoint> findRunning() {
+        return jdbc.query("SELECT * FROM batch_checkpoints WHERE state = 'RUNNING'", MAPPER);
+    }
+
+    /** Bắt đầu lượt chạy mới cho job (ghi đè lượt cũ cùng tên). */
+    public BatchCheckpoint start(OrderTransitionJob job) {
+        jdbc.update("""
+                INSERT INTO batch_checkpoints (job_name, from_status, to_status, cutoff, last_created_at, last_id,
+                  processed, pass, skipped_locked, state)
+                VALUES (?, ?, ?, ?, NULL, 0, 0, 1, 0, 'RUNNING')
+                ON DUPLICATE KEY UPDATE from_status = VALUES(from_status), to_status = VALUES(to_status),
+                  cutoff = VALUES(cutoff), last_created_at = NULL, last_id = 0, processed = 0,
+                  pass = 1, skipped_locked = 0, state = 'RUNNING'
+                """, job.name(), job.from().name(), job.to().name(), job.createdBefore());
+        return new BatchCheckpoint(job.name(), job.from(), job.to(), job.createdBefore(), null, 0, 0, 1, 0, BatchState.RUNNING);
+    }
+
+    public void save(BatchCheckpoint cp) {
+        jdbc.update("""
+                UPDATE batch_checkpoints SET last_created_at = ?, last_id = ?, processed = ?, pass = ?, skipped_locked = ?
+                WHERE job_name = ?
+                """, cp.lastCreatedAt(), cp.lastId(), cp.processed(), cp.pass(), cp.skippedLocked(), cp.jobName());
+    }
+
+    /** Chạy tiếp checkpoint chưa xong (RUNNING/FAILED), giữ nguyên cutoff, vị trí keyset và processed. */
+    public BatchCheckpoint resume(BatchCheckpoint cp) {
+        jdbc.update("UPDATE batch_checkpoints SET state = 'RUNNING' WHERE job_name = ?", cp.jobName());
+        return cp.running();
+    }
+
+    public void fail(String jobName) {
+        jdbc.update("UPDATE batch_checkpoints SET state = 'FAILED' WHERE job_name = ?", jobName);
+    }
+
+    public void finish(String jobName, long skippedLocked) {
+        jdbc.update("UPDATE batch_checkpoints SET state = 'DONE', skipped_locked = ? WHERE job_name = ?",
+                skippedLocked, jobName);
+    }
+}
@@ -0,0 +1,12 @@
+package com.coffee.coffee_api.order;
+
+/**
+ * Trạng thái checkpoint của batch job, khớp với cột batch_checkpoints.state (ENUM) trong V5__order_batch.sql.
+ *
+ *   RUNNING: đang chạy / chờ chạy; bị ngắt (tắt app) thì lần khởi động sau chạy tiếp.
+ *   FAILED: lượt chạy dừng vì lỗi (deadlock, mất kết nối...); gửi lại job sẽ chạy tiếp từ checkpoint.
+ *   DONE: đã xong; gửi lại job sẽ bắt đầu lượt mới.
+ */
+public enum BatchState {
+    RUNNING, DONE, FAILED
+}
@@ -0,0 +1,55 @@
+package com.coffee.coffee_api.order;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order entity
+ *
+ * Ý NGHĨA:
+ * - Ánh xạ bảng "orders" (V1__init.sql): mỗi dòng là một đơn hàng của một user.
+ * - Entity name là "ShopOrder" vì ORDER là từ khoá trong JPQL/HQL.
+ *
+ * CÁC TRƯỜNG:
+ * - userId: chủ đơn hàng (orders.user_id), có index idx_orders_user.
+ * - code: mã đơn hiển thị cho khách, UNIQUE.
+ * - total: tổng tiền, tính từ order_items.unit_price * quantity.
+ * - status: OrderStatus, lưu dạng chuỗi (EnumType.STRING).
+ * - createdAt: do DB tự gán (DEFAULT CURRENT_TIMESTAMP) nên không insert/update từ JPA.
+ */
+@Entity(name = "ShopOrder")
+@Table(name = "orders", indexes = { @Index(columnList = "user_id") })
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class Order {
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name="user_id", nullable=false)
+  private Long userId;
+
+  @Column(nullable=false, unique=true, length=32)
+  private String code;
+
+  @Column(nullable=false, precision=12, scale=2)
+  private BigDecimal total;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable=false, length=16)
+  @Builder.Default
+  private OrderStatus status = OrderStatus.PENDING;
+
+  @Column(name="receiver_name", length=120)
+  private String receiverName;
+
+  @Column(name="receiver_phone", length=20)
+  private String receiverPhone;
+
+  @Column(name="receiver_address", length=255)
+  private String receiverAddress;
+
+  @Column(name="created_at", insertable=false, updatable=false)
+  private LocalDateTime createdAt;
+}
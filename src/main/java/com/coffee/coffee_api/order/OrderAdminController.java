@@ -0,0 +1,54 @@
+package com.coffee.coffee_api.order;
+
+import com.coffee.coffee_api.dto.BulkStatusReq;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * OrderAdminController
+ *
+ * Ý NGHĨA:
+ * - API cho ADMIN (SecurityConfig chặn /api/admin/** theo ROLE_ADMIN) điều khiển batch đơn hàng.
+ *
+ * LUỒNG:
+ * 1) POST /api/admin/orders/bulk-status {from, to, createdBefore?}:
+ *    - Chuyển trạng thái không hợp lệ → 400; job cùng loại đang chờ/chạy → 409.
+ *    - Lượt trước chưa xong (FAILED, hoặc RUNNING bị ngắt) → chạy tiếp từ checkpoint, giữ cutoff cũ.
+ *    - Ngược lại → ghi checkpoint mới. Cả hai trường hợp đều chạy nền, trả 202 kèm checkpoint.
+ * 2) GET /api/admin/orders/batch/{job}: xem tiến độ (processed, vị trí keyset, pass, state);
+ *    DONE mà skippedLocked > 0 → còn đơn bị lock chưa chuyển được (best-effort), gọi lại để xử lý nốt.
+ */
+@RestController
+@RequestMapping("/api/admin/orders")
+@RequiredArgsConstructor
+public class OrderAdminController {
+
+    private final OrderBatchProcessor batch;
+    private final BatchCheckpointStore checkpoints;
+
+    @PostMapping("/bulk-status")
+    public ResponseEntity<BatchCheckpoint> bulkStatus(@Valid @RequestBody BulkStatusReq req) {
+        LocalDateTime cutoff = req.createdBefore() != null ? req.createdBefore() : batch.dbNow();
+        OrderTransitionJob job = new OrderTransitionJob(
+                OrderBatchProcessor.bulkJobName(req.from(), req.to()), req.from(), req.to(), cutoff);
+        try {
+            return ResponseEntity.accepted().body(batch.submit(job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).build();
+        }
+    }
+
+    @GetMapping("/batch/{job}")
+    public ResponseEntity<BatchCheckpoint> progress(@PathVariable String job) {
+        return checkpoints.find(job)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,353 @@
+package com.coffee.coffee_api.order;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OrderBatchProcessor
+ *
+ * Ý NGHĨA:
+ * - Chuyển trạng thái đơn hàng hàng loạt (nhân viên xác nhận/hoàn tất cuối ngày) và tự huỷ đơn PENDING quá hạn,
+ *   mà không giữ transaction dài hay tranh lock với checkout đang chạy.
+ *
+ * LUỒNG MỖI CHUNK (1 transaction ngắn):
+ * 1) SELECT id, user_id, created_at theo keyset (status, created_at, id) qua idx_orders_status_created,
+ *    LIMIT chunk, FOR UPDATE SKIP LOCKED → bỏ qua đơn đang bị request khác lock thay vì chờ.
+ * 2) MỘT câu UPDATE orders SET status = to WHERE status = from AND id IN (...) cho cả chunk → 1 round trip
+ *    (không dùng JdbcTemplate.batchUpdate: Connector/J không bật rewriteBatchedStatements sẽ gửi từng câu một).
+ *    Các hàng đã bị khoá FOR UPDATE ở bước 1 nên số hàng đổi phải đúng bằng số hàng đã chọn.
+ * 3) Phát OrderStatusChangedEvent cho từng đơn trong chunk (listener AFTER_COMMIT: cache lịch sử đơn, audit).
+ * 4) Ghi checkpoint (last_created_at, last_id) trong cùng transaction → dừng/crash ở đâu chạy lại tiếp từ đó.
+ *
+ * ĐƠN BỊ SKIP LOCKED:
+ * - Keyset đã đi qua đơn bị lock thì lượt quét đó không quay lại nữa. Hết lượt → đếm lại (không lock) số đơn
+ *   vẫn còn ở trạng thái from trước cutoff; còn thì nghỉ pass-delay-ms rồi quét lại từ đầu, tối đa max-passes lượt.
+ * - Hết max-passes mà vẫn còn → job vẫn DONE nhưng là best-effort: số đơn còn lại ghi vào
+ *   batch_checkpoints.skipped_locked, Result.skippedLocked và metric orders.batch.skipped.locked.
+ *
+ * ĐIỀU TIẾT (throttle):
+ * - Kích thước chunk tự co/giãn trong [min-chunk, chunk-size] để mỗi transaction ≈ target-chunk-ms.
+ * - Sau mỗi chunk nghỉ để batch chỉ chiếm tối đa duty-cycle thời gian (vd 0.2 = làm 20ms nghỉ 80ms).
+ *
+ * JOB:
+ * - "stale-pending": định kỳ huỷ đơn PENDING cũ hơn stale-pending-minutes (mốc thời gian lấy theo đồng hồ DB).
+ * - "bulk-<from>-<to>": do admin gọi qua OrderAdminController.
+ * - Mọi job đều chạy trên thread riêng "order-batch", không chạy trên thread của scheduler.
+ * - Mỗi tên job chỉ có tối đa 1 lượt đang chờ hoặc đang chạy: tên được đưa vào active TRƯỚC khi xếp hàng
+ *   và chỉ gỡ ra khi lượt đó chạy xong (hoặc xếp hàng thất bại).
+ * - Khi khởi động, các checkpoint còn RUNNING (bị ngắt giữa chừng) được chạy tiếp.
+ * - Lỗi giữa chừng (deadlock, lock wait timeout, mất kết nối...) → log, checkpoint chuyển FAILED;
+ *   chunk lỗi đã rollback nên gửi lại job (hoặc lượt "stale-pending" kế tiếp) chạy tiếp đúng từ checkpoint.
+ */
+@Slf4j
+@Service
+public class OrderBatchProcessor implements MeterBinder {
+
+    public static final String STALE_PENDING_JOB = "stale-pending";
+
+    private static final String SELECT_FIRST = """
+            SELECT id, user_id, created_at FROM orders
+            WHERE status = ? AND created_at < ?
+            ORDER BY created_at, id LIMIT ? FOR UPDATE SKIP LOCKED
+            """;
+    private static final String SELECT_NEXT = """
+            SELECT id, user_id, created_at FROM orders
+            WHERE status = ? AND created_at < ? AND (created_at > ? OR (created_at = ? AND id > ?))
+            ORDER BY created_at, id LIMIT ? FOR UPDATE SKIP LOCKED
+            """;
+    private static final String UPDATE = "UPDATE orders SET status = ? WHERE status = ? AND id IN (%s)";
+
+    private record Row(long id, long userId, LocalDateTime createdAt) {}
+
+    private static final RowMapper<Row> ROW = (rs, i) ->
+            new Row(rs.getLong("id"), rs.getLong("user_id"), rs.getObject("created_at", LocalDateTime.class));
+
+    private static final String COUNT_REMAINING = "SELECT COUNT(*) FROM orders WHERE status = ? AND created_at < ?";
+
+    /** skippedLocked: số đơn còn phù hợp nhưng chưa chuyển được (bị lock suốt các lượt quét). */
+    public record Result(String job, long updated, long skippedLocked, boolean completed) {}
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final BatchCheckpointStore checkpoints;
+
+    private final int maxChunk;
+    private final int minChunk;
+    private final long targetChunkNanos;
+    private final double dutyCycle;
+    private final Duration staleAfter;
+    private final int maxPasses;
+    private final long passDelayMs;
+
+    private final Set<String> active = ConcurrentHashMap.newKeySet();   // job đang chờ trong executor hoặc đang chạy
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "order-batch"));
+
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder skippedLocked = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+
+    public OrderBatchProcessor(JdbcTemplate jdbc, TransactionTemplate tx, ApplicationEventPublisher events,
+                               BatchCheckpointStore checkpoints,
+                               @Value("${coffee.orders.batch.chunk-size:200}") int maxChunk,
+                               @Value("${coffee.orders.batch.min-chunk:20}") int minChunk,
+                               @Value("${coffee.orders.batch.target-chunk-ms:100}") long targetChunkMs,
+                               @Value("${coffee.orders.batch.duty-cycle:0.2}") double dutyCycle,
+                               @Value("${coffee.orders.batch.stale-pending-minutes:30}") long stalePendingMinutes,
+                               @Value("${coffee.orders.batch.max-passes:3}") int maxPasses,
+                               @Value("${coffee.orders.batch.pass-delay-ms:1000}") long passDelayMs) {
+        if (dutyCycle <= 0 || dutyCycle > 1) {
+            throw new IllegalArgumentException("coffee.orders.batch.duty-cycle phải trong (0, 1]: " + dutyCycle);
+        }
+        this.jdbc = jdbc;
+        this.tx = tx;
+        this.events = events;
+        this.checkpoints = checkpoints;
+        this.maxChunk = maxChunk;
+        this.minChunk = Math.min(minChunk, maxChunk);
+        this.targetChunkNanos = TimeUnit.MILLISECONDS.toNanos(targetChunkMs);
+        this.dutyCycle = dutyCycle;
+        this.staleAfter = Duration.ofMinutes(stalePendingMinutes);
+        this.maxPasses = Math.max(1, maxPasses);
+        this.passDelayMs = passDelayMs;
+    }
+
+    public static String bulkJobName(OrderStatus from, OrderStatus to) {
+        return ("bulk-" + from + "-" + to).toLowerCase(Locale.ROOT);
+    }
+
+    /** Giờ hiện tại theo DB: so với orders.created_at (DB tự gán) không bị lệch múi giờ/đồng hồ app. */
+    public LocalDateTime dbNow() {
+        return jdbc.queryForObject("SELECT CURRENT_TIMESTAMP", LocalDateTime.class);
+    }
+
+    /**
+     * Chỉ tính mốc cutoff rồi giao job cho thread "order-batch": job có throttle có thể chạy lâu,
+     * không được giữ thread của scheduler mặc định (1 thread, dùng chung với PricingEngine.reloadIfChanged).
+     */
+    @Scheduled(fixedDelayString = "${coffee.orders.batch.stale-check-ms:300000}")
+    public void cancelStalePending() {
+        if (!active.add(STALE_PENDING_JOB)) {
+            log.debug("Batch {} đang chờ/chạy, bỏ qua lượt này", STALE_PENDING_JOB);
+            return;
+        }
+        try {
+            enqueue(new OrderTransitionJob(STALE_PENDING_JOB, OrderStatus.PENDING, OrderStatus.CANCELLED,
+                    dbNow().minus(staleAfter)));
+        } catch (RuntimeException e) {
+            active.remove(STALE_PENDING_JOB);
+            throw e;
+        }
+    }
+
+    /**
+     * Chạy nền job trên thread "order-batch": checkpoint cùng tên chưa xong (RUNNING/FAILED) và cùng from/to
+     * → chạy tiếp từ đó (giữ cutoff cũ, bỏ qua createdBefore mới); nếu không → ghi checkpoint mới.
+     * Ném IllegalArgumentException nếu chuyển trạng thái không hợp lệ,
+     * IllegalStateException nếu job cùng tên đang chờ hoặc đang chạy.
+     */
+    public BatchCheckpoint submit(OrderTransitionJob job) {
+        if (!job.from().canTransitionTo(job.to())) {
+            throw new IllegalArgumentException("Không thể chuyển " + job.from() + " → " + job.to());
+        }
+        if (!active.add(job.name())) {
+            throw new IllegalStateException("Job " + job.name() + " đang chờ hoặc đang chạy");
+        }
+        try {
+            BatchCheckpoint cp = checkpointFor(job);
+            enqueue(cp.job());
+            return cp;
+        } catch (RuntimeException e) {
+            active.remove(job.name());
+            throw e;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (BatchCheckpoint cp : checkpoints.findRunning()) {
+            if (!active.add(cp.jobName())) continue;
+            log.info("Chạy tiếp batch {} từ checkpoint ({}, {})", cp.jobName(), cp.lastCreatedAt(), cp.lastId());
+            try {
+                enqueue(cp.job());
+            } catch (RuntimeException e) {
+                active.remove(cp.jobName());
+                throw e;
+            }
+        }
+    }
+
+    // tên job phải đã nằm trong active; gỡ ra khi lượt chạy kết thúc
+    private void enqueue(OrderTransitionJob job) {
+        executor.execute(() -> {
+            try {
+                process(job);
+            } catch (RuntimeException e) {
+                log.error("Batch {} lỗi, checkpoint chuyển FAILED (gửi lại job để chạy tiếp)", job.name(), e);
+                markFailed(job.name());
+            } finally {
+                active.remove(job.name());
+            }
+        });
+    }
+
+    private void markFailed(String jobName) {
+        try {
+            checkpoints.fail(jobName);
+        } catch (RuntimeException e) {
+            // vẫn RUNNING trong DB → lần khởi động sau sẽ chạy tiếp
+            log.error("Không ghi được trạng thái FAILED cho batch {}", jobName, e);
+        }
+    }
+
+    private BatchCheckpoint checkpointFor(OrderTransitionJob job) {
+        return checkpoints.find(job.name())
+                .filter(c -> c.state() != BatchState.DONE && c.from() == job.from() && c.to() == job.to())
+                .map(c -> c.state() == BatchState.RUNNING ? c : checkpoints.resume(c))
+                .orElseGet(() -> checkpoints.start(job));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // ngắt giữa các chunk; checkpoint vẫn RUNNING để lần khởi động sau chạy tiếp
+        executor.shutdownNow();
+    }
+
+    /**
+     * Chạy job trên thread hiện tại tới khi hết đơn phù hợp, hết max-passes lượt quét (hoặc thread bị ngắt).
+     * Nếu đã có checkpoint chưa xong cùng tên & cùng from/to → tiếp tục từ đó (giữ cutoff và lượt quét cũ).
+     * Chỉ gọi qua enqueue() (tên job đã nằm trong active); package-private để test gọi trực tiếp.
+     */
+    Result process(OrderTransitionJob job) {
+        BatchCheckpoint cp = checkpointFor(job);
+        long before = cp.processed();
+        int chunk = Math.max(minChunk, maxChunk / 2);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            final BatchCheckpoint current = cp;
+            final int limit = chunk;
+            long t0 = System.nanoTime();
+            BatchCheckpoint next = tx.execute(s -> processChunk(current, limit));
+            long work = System.nanoTime() - t0;
+
+            if (next == null) {
+                long remaining = countRemaining(cp);
+                if (remaining > 0 && cp.pass() < maxPasses) {
+                    log.info("Batch {} hết lượt {}: còn {} đơn bị lock, quét lại từ đầu", job.name(), cp.pass(), remaining);
+                    cp = cp.nextPass(remaining);
+                    checkpoints.save(cp);
+                    chunk = Math.max(minChunk, maxChunk / 2);
+                    sleep(TimeUnit.MILLISECONDS.toNanos(passDelayMs));
+                    continue;
+                }
+                checkpoints.finish(job.name(), remaining);
+                skippedLocked.add(remaining);
+                if (remaining > 0) {
+                    log.warn("Batch {} dừng sau {} lượt, {} đơn {} vẫn bị lock nên chưa chuyển sang {}",
+                            job.name(), cp.pass(), remaining, job.from(), job.to());
+                }
+                if (cp.processed() > 0) {
+                    log.info("Batch {} xong: {} đơn {} → {}", job.name(), cp.processed(), job.from(), job.to());
+                }
+                return new Result(job.name(), cp.processed() - before, remaining, true);
+            }
+            cp = next;
+
+            chunk = nextChunkSize(chunk, work, targetChunkNanos, minChunk, maxChunk);
+            sleep(pauseNanos(work, dutyCycle));
+        }
+        return new Result(job.name(), cp.processed() - before, 0, false);
+    }
+
+    // trả null khi không còn đơn phù hợp
+    private BatchCheckpoint processChunk(BatchCheckpoint cp, int limit) {
+        String from = cp.from().name();
+        List<Row> rows = cp.lastCreatedAt() == null
+                ? jdbc.query(SELECT_FIRST, ROW, from, cp.cutoff(), limit)
+                : jdbc.query(SELECT_NEXT, ROW, from, cp.cutoff(),
+                        cp.lastCreatedAt(), cp.lastCreatedAt(), cp.lastId(), limit);
+        if (rows.isEmpty()) return null;
+
+        Object[] args = new Object[rows.size() + 2];
+        args[0] = cp.to().name();
+        args[1] = from;
+        for (int i = 0; i < rows.size(); i++) {
+            args[i + 2] = rows.get(i).id();
+        }
+        int changed = jdbc.update(String.format(UPDATE, String.join(",", Collections.nCopies(rows.size(), "?"))), args);
+        // hàng đang bị transaction này khoá FOR UPDATE thì không ai đổi được trạng thái;
+        // lệch nghĩa là có gì đó sai → ném lỗi để rollback cả chunk thay vì phát event sai
+        if (changed != rows.size()) {
+            throw new IllegalStateException("Batch " + cp.jobName() + ": UPDATE đổi " + changed
+                    + "/" + rows.size() + " đơn đã khoá");
+        }
+        for (Row row : rows) {
+            events.publishEvent(new OrderStatusChangedEvent(row.id(), row.userId(), cp.from(), cp.to()));
+        }
+
+        Row last = rows.get(rows.size() - 1);
+        BatchCheckpoint next = cp.advance(last.createdAt(), last.id(), changed);
+        checkpoints.save(next);
+        updated.add(changed);
+        chunks.increment();
+        return next;
+    }
+
+    // không lock: chỉ để biết còn bao nhiêu đơn bị SKIP LOCKED bỏ qua trong lượt vừa rồi
+    private long countRemaining(BatchCheckpoint cp) {
+        Long n = jdbc.queryForObject(COUNT_REMAINING, Long.class, cp.from().name(), cp.cutoff());
+        return n == null ? 0 : n;
+    }
+
+    /** Chunk lâu hơn target → giảm nửa; nhanh hơn nửa target → gấp đôi; luôn nằm trong [min, max]. */
+    static int nextChunkSize(int chunk, long workNanos, long targetNanos, int min, int max) {
+        if (workNanos > targetNanos) return Math.max(min, chunk / 2);
+        if (workNanos < targetNanos / 2) return Math.min(max, chunk * 2);
+        return chunk;
+    }
+
+    /** Thời gian nghỉ sau chunk để work / (work + nghỉ) = dutyCycle. */
+    static long pauseNanos(long workNanos, double dutyCycle) {
+        return (long) (workNanos * (1 - dutyCycle) / dutyCycle);
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("orders.batch.updated", updated, LongAdder::sum).register(registry);
+        FunctionCounter.builder("orders.batch.skipped.locked", skippedLocked, LongAdder::sum).register(registry);
+        FunctionCounter.builder("orders.batch.chunks", chunks, LongAdder::sum).register(registry);
+    }
+}
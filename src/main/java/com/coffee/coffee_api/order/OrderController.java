@@ -0,0 +1,39 @@
+package com.coffee.coffee_api.order;
+
+import com.coffee.coffee_api.User;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * OrderController
+ *
+ * Ý NGHĨA:
+ * - GET /api/orders/me?page=0&size=20: lịch sử đơn hàng của user đang đăng nhập.
+ * - Body là JSON đã serialize sẵn trong OrderHistoryCache → trả thẳng byte[].
+ * - Chưa đăng nhập (không có principal User) → 401, giống /api/auth/me.
+ */
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+public class OrderController {
+
+    private final OrderHistoryService history;
+
+    @GetMapping("/me")
+    public ResponseEntity<byte[]> myOrders(@RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof User u)) {
+            return ResponseEntity.status(401).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(history.history(u.getId(), page, size));
+    }
+}
@@ -0,0 +1,238 @@
+package com.coffee.coffee_api.order;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * OrderHistoryCache
+ *
+ * Ý NGHĨA:
+ * - Cache theo từng user cho các trang "đơn hàng của tôi", lưu sẵn dạng JSON đã serialize (byte[]).
+ * - Khi hit: trả thẳng byte[] ra response, không chạm DB, không serialize lại.
+ *
+ * GIỚI HẠN (bounded):
+ * - maxUsers: số user tối đa được giữ trong cache (LRU theo user).
+ * - maxBytes: tổng dung lượng ước tính (payload + overhead mỗi entry).
+ * - maxPagesPerUser: số trang tối đa mỗi user; trang vượt quá thì không cache.
+ *
+ * LUỒNG get():
+ * 1) Có sẵn → hit.
+ * 2) Miss → single-flight: chỉ request đầu tiên gọi loader, các request cùng key chờ chung kết quả.
+ * 3) Loader xong → chỉ lưu vào cache nếu "generation" của user không đổi trong lúc load
+ *    (tránh lưu dữ liệu cũ khi có invalidate chen giữa).
+ *
+ * INVALIDATE:
+ * - invalidate(userId) xoá toàn bộ trang của user và tăng generation.
+ * - Generation chia theo STRIPES (theo userId) để không phải giữ map cho mọi user;
+ *   đụng stripe chỉ làm bỏ qua một lần lưu cache, không sai dữ liệu.
+ */
+@Component
+public class OrderHistoryCache {
+
+    /** Ước lượng overhead mỗi trang (object header, key, node của map). */
+    static final int ENTRY_OVERHEAD = 96;
+
+    private static final int STRIPES = 1024;
+
+    record PageKey(long userId, int page, int size) {}
+
+    private static final class UserPages {
+        final Map<PageKey, byte[]> pages = new HashMap<>();
+        long bytes;
+    }
+
+    private final int maxUsers;
+    private final long maxBytes;
+    private final int maxPagesPerUser;
+
+    // access-order = true → duyệt từ đầu là user ít dùng nhất (LRU)
+    private final LinkedHashMap<Long, UserPages> users = new LinkedHashMap<>(16, 0.75f, true);
+    private final Object lock = new Object();
+    private long bytes;
+    private int entries;
+
+    private final ConcurrentHashMap<PageKey, CompletableFuture<byte[]>> inflight = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public OrderHistoryCache(
+            @Value("${coffee.order-history.cache.max-users:10000}") int maxUsers,
+            @Value("${coffee.order-history.cache.max-bytes:67108864}") long maxBytes,
+            @Value("${coffee.order-history.cache.max-pages-per-user:4}") int maxPagesPerUser) {
+        this.maxUsers = maxUsers;
+        this.maxBytes = maxBytes;
+        this.maxPagesPerUser = maxPagesPerUser;
+    }
+
+    /**
+     * Lấy trang (userId, page, size) từ cache; miss thì gọi loader đúng 1 lần cho mọi request đang chờ.
+     * Exception của loader được ném lại cho tất cả request cùng key.
+     */
+    public byte[] get(long userId, int page, int size, Supplier<byte[]> loader) {
+        PageKey key = new PageKey(userId, page, size);
+        byte[] cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<byte[]> mine = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inflight.putIfAbsent(key, mine);
+        if (running != null) {
+            return join(running);
+        }
+
+        long generation = generations.get(stripe(userId));
+        try {
+            loads.increment();
+            byte[] value = loader.get();
+            store(key, value, generation);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(key, mine);
+        }
+    }
+
+    /** Xoá mọi trang của user; các load đang chạy cho user này sẽ không được lưu vào cache. */
+    public void invalidate(long userId) {
+        synchronized (lock) {
+            generations.incrementAndGet(stripe(userId));
+            UserPages removed = users.remove(userId);
+            if (removed != null) {
+                bytes -= removed.bytes;
+                entries -= removed.pages.size();
+            }
+        }
+        // request mới không được "đi nhờ" load đã bắt đầu trước khi invalidate
+        inflight.keySet().removeIf(k -> k.userId() == userId);
+        invalidations.increment();
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            for (int i = 0; i < STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            users.clear();
+            bytes = 0;
+            entries = 0;
+        }
+        inflight.clear();
+    }
+
+    private byte[] lookup(PageKey key) {
+        synchronized (lock) {
+            UserPages up = users.get(key.userId());
+            return up == null ? null : up.pages.get(key);
+        }
+    }
+
+    private void store(PageKey key, byte[] value, long generation) {
+        long cost = value.length + ENTRY_OVERHEAD;
+        if (cost > maxBytes) {
+            return;
+        }
+        synchronized (lock) {
+            if (generations.get(stripe(key.userId())) != generation) {
+                return;
+            }
+            UserPages up = users.computeIfAbsent(key.userId(), k -> new UserPages());
+            byte[] old = up.pages.get(key);
+            if (old == null && up.pages.size() >= maxPagesPerUser) {
+                return;
+            }
+            up.pages.put(key, value);
+            long delta = old == null ? cost : value.length - old.length;
+            up.bytes += delta;
+            bytes += delta;
+            if (old == null) {
+                entries++;
+            }
+            evictIfNeeded(key.userId());
+        }
+    }
+
+    // gọi trong lock; không bao giờ loại chính user vừa được ghi
+    private void evictIfNeeded(long keep) {
+        Iterator<Map.Entry<Long, UserPages>> it = users.entrySet().iterator();
+        while ((users.size() > maxUsers || bytes > maxBytes) && it.hasNext()) {
+            Map.Entry<Long, UserPages> eldest = it.next();
+            if (eldest.getKey() == keep) {
+                continue;
+            }
+            bytes -= eldest.getValue().bytes;
+            entries -= eldest.getValue().pages.size();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static int stripe(long userId) {
+        return (int) (Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (STRIPES - 1));
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    // ===== Thống kê (xuất qua Micrometer trong OrderHistoryService) =====
+
+    public long hits() { return hits.sum(); }
+    public long misses() { return misses.sum(); }
+    public long loads() { return loads.sum(); }
+    public long evictions() { return evictions.sum(); }
+    public long invalidations() { return invalidations.sum(); }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /** Dung lượng ước tính đang chiếm (byte). */
+    public long estimatedBytes() {
+        synchronized (lock) {
+            return bytes;
+        }
+    }
+
+    /** Số trang đang được cache. */
+    public int size() {
+        synchronized (lock) {
+            return entries;
+        }
+    }
+
+    public int userCount() {
+        synchronized (lock) {
+            return users.size();
+        }
+    }
+}
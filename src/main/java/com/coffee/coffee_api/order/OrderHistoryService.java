@@ -0,0 +1,105 @@
+package com.coffee.coffee_api.order;
+
+import com.coffee.coffee_api.dto.OrderHistoryResp;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * OrderHistoryService
+ *
+ * Ý NGHĨA:
+ * - Phục vụ lịch sử đơn hàng của user từ OrderHistoryCache; chỉ chạm DB khi cache miss.
+ * - Một lần load = 2 truy vấn: 1 trang orders (idx_orders_user) + order_items của các đơn trong trang.
+ *
+ * INVALIDATE (theo sự kiện):
+ * - OrderPlacedEvent / OrderStatusChangedEvent → xoá cache của đúng user đó.
+ * - OrderStatusChangedEvent do OrderBatchProcessor phát; OrderPlacedEvent phải do luồng tạo đơn phát
+ *   (hiện chưa có, xem OrderPlacedEvent).
+ * - Dùng @TransactionalEventListener (AFTER_COMMIT) để không xoá cache trước khi dữ liệu mới được commit;
+ *   fallbackExecution = true để vẫn nhận event phát ngoài transaction.
+ *
+ * METRICS (MeterBinder, tự đăng ký khi có actuator):
+ * - order.history.cache.hit.ratio, order.history.cache.bytes, order.history.cache.entries
+ * - order.history.cache.requests{result=hit|miss}, .loads, .evictions, .invalidations
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderHistoryService implements MeterBinder {
+
+    static final int MAX_PAGE_SIZE = 50;
+
+    private final OrderRepository orders;
+    private final OrderItemRepository items;
+    private final ObjectMapper json;
+    private final OrderHistoryCache cache;
+
+    /** Trả JSON (đã serialize) của một trang lịch sử đơn hàng. */
+    public byte[] history(long userId, int page, int size) {
+        int p = Math.max(page, 0);
+        int s = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return cache.get(userId, p, s, () -> load(userId, p, s));
+    }
+
+    private byte[] load(long userId, int page, int size) {
+        Slice<Order> slice = orders.findByUserIdOrderByCreatedAtDescIdDesc(userId, PageRequest.of(page, size));
+        List<Long> ids = slice.getContent().stream().map(Order::getId).toList();
+
+        Map<Long, List<OrderHistoryResp.Line>> lines = ids.isEmpty() ? Map.of()
+                : items.findByOrderIdIn(ids).stream().collect(Collectors.groupingBy(
+                        OrderItem::getOrderId,
+                        Collectors.mapping(i -> new OrderHistoryResp.Line(i.getProductId(), i.getQuantity(), i.getUnitPrice()),
+                                Collectors.toList())));
+
+        List<OrderHistoryResp.OrderSummary> summaries = slice.getContent().stream()
+                .map(o -> new OrderHistoryResp.OrderSummary(
+                        o.getId(), o.getCode(), o.getTotal(), o.getStatus().name(), o.getCreatedAt(),
+                        lines.getOrDefault(o.getId(), List.of())))
+                .toList();
+
+        try {
+            return json.writeValueAsBytes(new OrderHistoryResp(page, size, slice.hasNext(), summaries));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không serialize được lịch sử đơn hàng", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent e) {
+        cache.invalidate(e.userId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent e) {
+        cache.invalidate(e.userId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("order.history.cache.hit.ratio", cache, OrderHistoryCache::hitRatio).register(registry);
+        Gauge.builder("order.history.cache.bytes", cache, OrderHistoryCache::estimatedBytes)
+                .baseUnit("bytes").register(registry);
+        Gauge.builder("order.history.cache.entries", cache, OrderHistoryCache::size).register(registry);
+        FunctionCounter.builder("order.history.cache.requests", cache, OrderHistoryCache::hits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("order.history.cache.requests", cache, OrderHistoryCache::misses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("order.history.cache.loads", cache, OrderHistoryCache::loads).register(registry);
+        FunctionCounter.builder("order.history.cache.evictions", cache, OrderHistoryCache::evictions).register(registry);
+        FunctionCounter.builder("order.history.cache.invalidations", cache, OrderHistoryCache::invalidations)
+                .register(registry);
+    }
+}
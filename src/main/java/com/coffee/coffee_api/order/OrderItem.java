@@ -0,0 +1,34 @@
+package com.coffee.coffee_api.order;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * OrderItem entity
+ *
+ * Ý NGHĨA:
+ * - Ánh xạ bảng "order_items": từng dòng sản phẩm trong một đơn hàng.
+ * - Giữ orderId/productId dạng khoá thô (không @ManyToOne) để các truy vấn
+ *   đọc lịch sử đơn chỉ lấy đúng cột cần, không kéo theo entity liên quan.
+ */
+@Entity
+@Table(name = "order_items")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class OrderItem {
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name="order_id", nullable=false)
+  private Long orderId;
+
+  @Column(name="product_id", nullable=false)
+  private Long productId;
+
+  @Column(nullable=false)
+  private Integer quantity;
+
+  @Column(name="unit_price", nullable=false, precision=12, scale=2)
+  private BigDecimal unitPrice;
+}
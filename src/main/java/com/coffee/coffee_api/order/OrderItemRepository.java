@@ -0,0 +1,16 @@
+package com.coffee.coffee_api.order;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * OrderItemRepository
+ *
+ * CÁC METHOD:
+ * - findByOrderIdIn(orderIds): nạp toàn bộ dòng hàng của nhiều đơn trong 1 truy vấn
+ *   (tránh N+1 khi dựng một trang lịch sử đơn hàng).
+ */
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+    List<OrderItem> findByOrderIdIn(Collection<Long> orderIds);
+}
@@ -0,0 +1,12 @@
+package com.coffee.coffee_api.order;
+
+/**
+ * Sự kiện: user vừa đặt một đơn hàng mới.
+ *
+ * LƯU Ý:
+ * - Luồng tạo đơn (checkout) PHẢI phát event này qua ApplicationEventPublisher ngay trong transaction tạo đơn;
+ *   các listener (OrderHistoryService, AuditEventListener) chạy AFTER_COMMIT.
+ * - Hiện trong code chưa có luồng tạo đơn nào, nên chưa có nơi phát event này: khi thêm checkout
+ *   mà quên phát, cache "đơn hàng của tôi" sẽ không thấy đơn mới cho tới khi bị loại khỏi cache.
+ */
+public record OrderPlacedEvent(Long orderId, Long userId) {}
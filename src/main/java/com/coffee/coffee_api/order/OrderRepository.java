@@ -0,0 +1,17 @@
+package com.coffee.coffee_api.order;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * OrderRepository
+ *
+ * CÁC METHOD:
+ * - findByUserIdOrderByCreatedAtDescIdDesc(userId, pageable):
+ *   + Lấy một trang đơn hàng của user, mới nhất trước (đi qua idx_orders_user).
+ *   + Trả về Slice (không chạy thêm COUNT(*)), chỉ cần biết còn trang sau hay không.
+ */
+public interface OrderRepository extends JpaRepository<Order, Long> {
+    Slice<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+}
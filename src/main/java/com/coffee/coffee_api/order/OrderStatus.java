@@ -0,0 +1,23 @@
+package com.coffee.coffee_api.order;
+
+/**
+ * Trạng thái đơn hàng, khớp với cột orders.status (ENUM) trong V1__init.sql.
+ *
+ * Luồng hợp lệ:
+ *   PENDING → CONFIRMED | CANCELLED
+ *   CONFIRMED → SHIPPING | COMPLETED | CANCELLED
+ *   SHIPPING → COMPLETED
+ *   COMPLETED, CANCELLED: trạng thái cuối.
+ */
+public enum OrderStatus {
+    PENDING, CONFIRMED, SHIPPING, COMPLETED, CANCELLED;
+
+    public boolean canTransitionTo(OrderStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == CANCELLED;
+            case CONFIRMED -> next == SHIPPING || next == COMPLETED || next == CANCELLED;
+            case SHIPPING -> next == COMPLETED;
+            case COMPLETED, CANCELLED -> false;
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package com.coffee.coffee_api.order;
+
+/**
+ * Sự kiện: một đơn hàng đổi trạng thái (from → to).
+ * Phát qua ApplicationEventPublisher ngay trong transaction cập nhật đơn.
+ */
+public record OrderStatusChangedEvent(Long orderId, Long userId, OrderStatus from, OrderStatus to) {}
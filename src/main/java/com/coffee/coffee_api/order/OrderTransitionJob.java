@@ -0,0 +1,9 @@
+package com.coffee.coffee_api.order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một lượt batch chuyển trạng thái: mọi đơn đang ở from và created_at < createdBefore → to.
+ * name là khoá checkpoint; cùng name thì chạy lại sẽ tiếp tục từ checkpoint chưa xong (RUNNING/FAILED).
+ */
+public record OrderTransitionJob(String name, OrderStatus from, OrderStatus to, LocalDateTime createdBefore) {}
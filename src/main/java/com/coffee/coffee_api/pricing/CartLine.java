@@ -0,0 +1,9 @@
+package com.coffee.coffee_api.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Một dòng trong giỏ hàng cần tính giá.
+ * unitPrice & categoryId lấy từ bảng products phía server (không tin giá client gửi lên).
+ */
+public record CartLine(long productId, Long categoryId, int quantity, BigDecimal unitPrice) {}
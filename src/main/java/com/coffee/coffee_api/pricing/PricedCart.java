@@ -0,0 +1,20 @@
+package com.coffee.coffee_api.pricing;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Kết quả tính giá giỏ hàng.
+ * - subtotal: tổng trước giảm; discount: tổng giảm; total = subtotal - discount (không âm).
+ * - applied: từng khuyến mãi đã áp dụng và số tiền giảm tương ứng.
+ * - voucherAccepted: false nếu có nhập mã nhưng mã không hợp lệ/không đủ điều kiện.
+ */
+public record PricedCart(
+    BigDecimal subtotal,
+    BigDecimal discount,
+    BigDecimal total,
+    List<Applied> applied,
+    boolean voucherAccepted
+) {
+  public record Applied(long promotionId, String name, BigDecimal amount) {}
+}
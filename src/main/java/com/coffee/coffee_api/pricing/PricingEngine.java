@@ -0,0 +1,85 @@
+package com.coffee.coffee_api.pricing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * PricingEngine
+ *
+ * Ý NGHĨA:
+ * - Tính giá giỏ hàng (combo, happy hour, giảm % theo danh mục, voucher) hoàn toàn trong bộ nhớ,
+ *   không truy vấn DB lúc checkout.
+ *
+ * HOT RELOAD:
+ * - reloadIfChanged() chạy định kỳ (coffee.pricing.reload-ms): so fingerprint (COUNT + checksum id/updated_at,
+ *   xem PromotionRepository); nếu đổi → nạp khuyến mãi active, biên dịch PricingRules mới rồi gán vào field volatile.
+ * - Lưới an toàn: cứ coffee.pricing.full-reload-every lượt thì nạp lại toàn bộ dù fingerprint không đổi
+ *   (checksum trùng, sửa trực tiếp DB mà không đổi updated_at...).
+ * - Checkout đang chạy vẫn dùng snapshot cũ cho đến hết lượt tính → không cần lock, không "pause".
+ *
+ * MÚI GIỜ: coffee.pricing.zone dùng cho starts_at/ends_at và happy hour.
+ */
+@Slf4j
+@Service
+public class PricingEngine implements MeterBinder {
+
+    private final PromotionRepository promotions;
+    private final ZoneId zone;
+    private final int fullReloadEvery;
+
+    private volatile PricingRules rules = PricingRules.EMPTY;
+    private long loadedCount = -1;
+    private long loadedChecksum;
+    private int ticksSinceReload;
+
+    public PricingEngine(PromotionRepository promotions,
+                         @Value("${coffee.pricing.zone:Asia/Ho_Chi_Minh}") String zone,
+                         @Value("${coffee.pricing.full-reload-every:20}") int fullReloadEvery) {
+        this.promotions = promotions;
+        this.zone = ZoneId.of(zone);
+        this.fullReloadEvery = Math.max(1, fullReloadEvery);
+    }
+
+    public PricedCart price(List<CartLine> lines, String voucherCode) {
+        return rules.price(lines, voucherCode, System.currentTimeMillis());
+    }
+
+    public PricingRules rules() {
+        return rules;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${coffee.pricing.reload-ms:30000}")
+    public synchronized void reloadIfChanged() {
+        PromotionRepository.Fingerprint fp = promotions.fingerprint();
+        if (fp.getCount() == loadedCount && fp.getChecksum() == loadedChecksum
+                && ++ticksSinceReload < fullReloadEvery) {
+            return;
+        }
+        reload();
+        loadedCount = fp.getCount();
+        loadedChecksum = fp.getChecksum();
+    }
+
+    /** Nạp & biên dịch lại ngay (không so fingerprint). */
+    public synchronized void reload() {
+        List<PromotionRule> active = promotions.findByIsActiveTrue().stream().map(Promotion::toRule).toList();
+        PricingRules compiled = PricingRules.compile(active, zone);
+        rules = compiled;
+        ticksSinceReload = 0;
+        log.info("Đã nạp {} khuyến mãi ({} bị bỏ qua do thiếu dữ liệu)", compiled.size(), compiled.skipped());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pricing.rules", this, e -> e.rules().size()).register(registry);
+        Gauge.builder("pricing.rules.skipped", this, e -> e.rules().skipped()).register(registry);
+    }
+}
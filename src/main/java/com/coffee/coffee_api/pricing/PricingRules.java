@@ -0,0 +1,302 @@
+package com.coffee.coffee_api.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PricingRules
+ *
+ * Ý NGHĨA:
+ * - Bộ khuyến mãi đã "biên dịch" sẵn, bất biến (immutable) → nhiều luồng checkout đọc cùng lúc không cần lock.
+ * - PricingEngine dựng bản mới rồi thay tham chiếu (copy-on-write) khi reload, checkout đang chạy không bị dừng.
+ *
+ * CẤU TRÚC INDEX:
+ * - byProduct / byCategory: productId / categoryId → các rule giảm %, xếp sẵn theo % giảm giảm dần
+ *   (rule đầu tiên đang hiệu lực chính là rule tốt nhất).
+ * - combos: mọi combo xếp theo số tiền giảm giảm dần; combosByProduct: món thứ nhất → vị trí trong combos.
+ * - vouchers: mã (chữ hoa) → voucher.
+ * - Tiền xử lý bằng long (đơn vị 0.01) và % bằng basis point (1% = 100) để không tạo BigDecimal trong vòng lặp.
+ *
+ * THỨ TỰ ÁP DỤNG (không cộng dồn trên cùng một đơn vị sản phẩm):
+ * 1) Combo: ghép cặp theo combo giảm nhiều nhất trước; đơn vị đã vào combo không được giảm % nữa.
+ * 2) Giảm %: mỗi dòng lấy rule tốt nhất giữa rule theo món và theo danh mục (kể cả happy hour).
+ * 3) Voucher: áp trên phần còn lại sau bước 1-2, nếu đạt min_subtotal.
+ */
+public final class PricingRules {
+
+    public static final PricingRules EMPTY = compile(List.of(), ZoneId.systemDefault());
+
+    private static final int ALL_DAY = -1;
+
+    private record PercentRule(long id, String name, int bps, long from, long to, int hhStart, int hhEnd) {
+        boolean activeAt(long now, int minuteOfDay) {
+            if (now < from || now >= to) return false;
+            if (hhStart == ALL_DAY) return true;
+            return hhStart <= hhEnd
+                    ? minuteOfDay >= hhStart && minuteOfDay < hhEnd
+                    : minuteOfDay >= hhStart || minuteOfDay < hhEnd;   // khung giờ qua nửa đêm
+        }
+    }
+
+    private record Combo(long id, String name, long first, long second, long amount, long from, long to) {}
+
+    private record Voucher(long id, String name, int bps, long amount, long minSubtotal, long from, long to) {}
+
+    private final ZoneId zone;
+    private final Map<Long, PercentRule[]> byProduct;
+    private final Map<Long, PercentRule[]> byCategory;
+    private final Combo[] combos;
+    private final Map<Long, int[]> combosByProduct;
+    private final Map<String, Voucher> vouchers;
+    private final int size;
+    private final int skipped;
+
+    private PricingRules(ZoneId zone, Map<Long, PercentRule[]> byProduct, Map<Long, PercentRule[]> byCategory,
+                         Combo[] combos, Map<Long, int[]> combosByProduct, Map<String, Voucher> vouchers,
+                         int size, int skipped) {
+        this.zone = zone;
+        this.byProduct = byProduct;
+        this.byCategory = byCategory;
+        this.combos = combos;
+        this.combosByProduct = combosByProduct;
+        this.vouchers = vouchers;
+        this.size = size;
+        this.skipped = skipped;
+    }
+
+    /** Biên dịch danh sách khuyến mãi đang active; rule thiếu dữ liệu bắt buộc của type sẽ bị bỏ qua (đếm vào skipped). */
+    public static PricingRules compile(Collection<PromotionRule> rules, ZoneId zone) {
+        Map<Long, List<PercentRule>> byProduct = new HashMap<>();
+        Map<Long, List<PercentRule>> byCategory = new HashMap<>();
+        List<Combo> combos = new ArrayList<>();
+        Map<String, Voucher> vouchers = new HashMap<>();
+        int size = 0;
+        int skipped = 0;
+
+        for (PromotionRule r : rules) {
+            long from = r.startsAt() == null ? Long.MIN_VALUE : epochMillis(r.startsAt(), zone);
+            long to = r.endsAt() == null ? Long.MAX_VALUE : epochMillis(r.endsAt(), zone);
+            int bps = r.percentOff() == null ? 0 : r.percentOff().movePointRight(2).intValue();
+            long amount = r.amountOff() == null ? 0 : cents(r.amountOff());
+            boolean ok = switch (r.type()) {
+                case PRODUCT_PERCENT, CATEGORY_PERCENT -> {
+                    Long key = r.type() == PromotionType.PRODUCT_PERCENT ? r.productId() : r.categoryId();
+                    if (key == null || bps <= 0 || bps > 10_000) yield false;
+                    boolean hh = r.happyHourStart() != null && r.happyHourEnd() != null;
+                    PercentRule p = new PercentRule(r.id(), r.name(), bps, from, to,
+                            hh ? minuteOfDay(r.happyHourStart()) : ALL_DAY,
+                            hh ? minuteOfDay(r.happyHourEnd()) : ALL_DAY);
+                    (r.type() == PromotionType.PRODUCT_PERCENT ? byProduct : byCategory)
+                            .computeIfAbsent(key, k -> new ArrayList<>()).add(p);
+                    yield true;
+                }
+                case COMBO -> {
+                    if (r.productId() == null || r.comboProductId() == null || amount <= 0) yield false;
+                    combos.add(new Combo(r.id(), r.name(), r.productId(), r.comboProductId(), amount, from, to));
+                    yield true;
+                }
+                case VOUCHER -> {
+                    if (r.voucherCode() == null || r.voucherCode().isBlank() || (bps <= 0 && amount <= 0)
+                            || bps > 10_000) yield false;
+                    long min = r.minSubtotal() == null ? 0 : cents(r.minSubtotal());
+                    vouchers.put(normalize(r.voucherCode()), new Voucher(r.id(), r.name(), bps, amount, min, from, to));
+                    yield true;
+                }
+            };
+            if (ok) size++; else skipped++;
+        }
+
+        combos.sort(Comparator.comparingLong(Combo::amount).reversed());
+        Map<Long, List<Integer>> comboIdx = new HashMap<>();
+        for (int i = 0; i < combos.size(); i++) {
+            comboIdx.computeIfAbsent(combos.get(i).first(), k -> new ArrayList<>()).add(i);
+        }
+        Map<Long, int[]> combosByProduct = new HashMap<>();
+        comboIdx.forEach((k, v) -> combosByProduct.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+
+        return new PricingRules(zone, freeze(byProduct), freeze(byCategory), combos.toArray(Combo[]::new),
+                combosByProduct, vouchers, size, skipped);
+    }
+
+    /** Tính giá giỏ hàng tại thời điểm nowMillis. voucherCode có thể null/rỗng. */
+    public PricedCart price(List<CartLine> lines, String voucherCode, long nowMillis) {
+        int n = lines.size();
+        long[] unit = new long[n];
+        int[] free = new int[n];     // số đơn vị chưa được combo "dùng"
+        long subtotal = 0;
+        for (int i = 0; i < n; i++) {
+            CartLine l = lines.get(i);
+            unit[i] = cents(l.unitPrice());
+            free[i] = Math.max(l.quantity(), 0);
+            subtotal += unit[i] * free[i];
+        }
+
+        List<PricedCart.Applied> applied = new ArrayList<>(4);
+        long discount = 0;
+
+        // 1) combo
+        if (combos.length > 0) {
+            int[] candidates = comboCandidates(lines);
+            int prev = -1;
+            for (int idx : candidates) {
+                if (idx == prev) continue;
+                prev = idx;
+                Combo c = combos[idx];
+                if (nowMillis < c.from() || nowMillis >= c.to()) continue;
+                // combo cùng một món (vd "2 latte giá X"): mỗi cặp dùng 2 đơn vị của cùng dòng
+                int pairs = c.first() == c.second()
+                        ? freeOf(lines, free, c.first()) / 2
+                        : Math.min(freeOf(lines, free, c.first()), freeOf(lines, free, c.second()));
+                if (pairs <= 0) continue;
+                if (c.first() == c.second()) {
+                    take(lines, free, c.first(), 2 * pairs);
+                } else {
+                    take(lines, free, c.first(), pairs);
+                    take(lines, free, c.second(), pairs);
+                }
+                long d = pairs * c.amount();
+                discount += d;
+                add(applied, c.id(), c.name(), d);
+            }
+        }
+
+        // 2) giảm % theo món / danh mục
+        int minute = (!byProduct.isEmpty() || !byCategory.isEmpty())
+                ? LocalTime.ofInstant(Instant.ofEpochMilli(nowMillis), zone).toSecondOfDay() / 60 : 0;
+        for (int i = 0; i < n; i++) {
+            if (free[i] == 0) continue;
+            CartLine l = lines.get(i);
+            PercentRule best = firstActive(byProduct.get(l.productId()), nowMillis, minute);
+            if (l.categoryId() != null) {
+                PercentRule cat = firstActive(byCategory.get(l.categoryId()), nowMillis, minute);
+                if (cat != null && (best == null || cat.bps() > best.bps())) best = cat;
+            }
+            if (best == null) continue;
+            long d = unit[i] * free[i] * best.bps() / 10_000;
+            if (d <= 0) continue;
+            discount += d;
+            add(applied, best.id(), best.name(), d);
+        }
+
+        // 3) voucher
+        boolean voucherAccepted = voucherCode == null || voucherCode.isBlank();
+        if (!voucherAccepted) {
+            Voucher v = vouchers.get(normalize(voucherCode));
+            long remaining = subtotal - discount;
+            if (v != null && nowMillis >= v.from() && nowMillis < v.to() && remaining >= v.minSubtotal()) {
+                long d = v.bps() > 0 ? remaining * v.bps() / 10_000 : Math.min(v.amount(), remaining);
+                discount += d;
+                add(applied, v.id(), v.name(), d);
+                voucherAccepted = true;
+            }
+        }
+
+        discount = Math.min(discount, subtotal);
+        return new PricedCart(money(subtotal), money(discount), money(subtotal - discount), applied, voucherAccepted);
+    }
+
+    /** Số khuyến mãi đã biên dịch thành công. */
+    public int size() {
+        return size;
+    }
+
+    /** Số khuyến mãi bị bỏ qua do thiếu/sai dữ liệu. */
+    public int skipped() {
+        return skipped;
+    }
+
+    // ===== helpers =====
+
+    private int[] comboCandidates(List<CartLine> lines) {
+        int[] out = new int[8];
+        int count = 0;
+        for (CartLine l : lines) {
+            int[] idx = combosByProduct.get(l.productId());
+            if (idx == null) continue;
+            if (count + idx.length > out.length) out = Arrays.copyOf(out, Math.max(out.length * 2, count + idx.length));
+            System.arraycopy(idx, 0, out, count, idx.length);
+            count += idx.length;
+        }
+        int[] result = Arrays.copyOf(out, count);
+        Arrays.sort(result);    // vị trí nhỏ = giảm nhiều hơn
+        return result;
+    }
+
+    private static int freeOf(List<CartLine> lines, int[] free, long productId) {
+        int sum = 0;
+        for (int i = 0; i < free.length; i++) {
+            if (lines.get(i).productId() == productId) sum += free[i];
+        }
+        return sum;
+    }
+
+    private static void take(List<CartLine> lines, int[] free, long productId, int qty) {
+        for (int i = 0; i < free.length && qty > 0; i++) {
+            if (lines.get(i).productId() != productId) continue;
+            int t = Math.min(free[i], qty);
+            free[i] -= t;
+            qty -= t;
+        }
+    }
+
+    private static PercentRule firstActive(PercentRule[] rules, long now, int minute) {
+        if (rules == null) return null;
+        for (PercentRule r : rules) {
+            if (r.activeAt(now, minute)) return r;
+        }
+        return null;
+    }
+
+    // gộp số tiền giảm nếu cùng 1 khuyến mãi áp cho nhiều dòng
+    private static void add(List<PricedCart.Applied> applied, long id, String name, long cents) {
+        for (int i = 0; i < applied.size(); i++) {
+            PricedCart.Applied a = applied.get(i);
+            if (a.promotionId() == id) {
+                applied.set(i, new PricedCart.Applied(id, name, a.amount().add(money(cents))));
+                return;
+            }
+        }
+        applied.add(new PricedCart.Applied(id, name, money(cents)));
+    }
+
+    private static Map<Long, PercentRule[]> freeze(Map<Long, List<PercentRule>> in) {
+        Map<Long, PercentRule[]> out = new HashMap<>(Math.max(16, in.size() * 2));
+        in.forEach((k, v) -> {
+            v.sort(Comparator.comparingInt(PercentRule::bps).reversed());
+            out.put(k, v.toArray(PercentRule[]::new));
+        });
+        return out;
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static long epochMillis(LocalDateTime t, ZoneId zone) {
+        return t.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static int minuteOfDay(LocalTime t) {
+        return t.getHour() * 60 + t.getMinute();
+    }
+
+    private static long cents(BigDecimal v) {
+        return v.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal money(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,82 @@
+package com.coffee.coffee_api.pricing;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Promotion entity
+ *
+ * Ý NGHĨA:
+ * - Ánh xạ bảng "promotions" (V4__create_promotions.sql): khuyến mãi/voucher do marketing cấu hình.
+ * - Không dùng trực tiếp khi tính giá; PricingEngine đổi sang PromotionRule rồi biên dịch thành PricingRules.
+ *
+ * CÁC TRƯỜNG (xem PromotionType để biết type nào dùng trường nào):
+ * - productId / comboProductId / categoryId / voucherCode: phạm vi áp dụng.
+ * - percentOff / amountOff / minSubtotal: mức giảm & điều kiện.
+ * - startsAt / endsAt: thời gian hiệu lực (null = không giới hạn).
+ * - happyHourStart / happyHourEnd: khung giờ trong ngày (null = cả ngày).
+ * - updatedAt: DB tự cập nhật; PricingEngine dùng để phát hiện thay đổi khi reload.
+ */
+@Entity
+@Table(name = "promotions")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class Promotion {
+  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable=false, length=160)
+  private String name;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable=false, length=32)
+  private PromotionType type;
+
+  @Column(name="product_id")
+  private Long productId;
+
+  @Column(name="combo_product_id")
+  private Long comboProductId;
+
+  @Column(name="category_id")
+  private Long categoryId;
+
+  @Column(name="voucher_code", unique=true, length=32)
+  private String voucherCode;
+
+  @Column(name="percent_off", precision=5, scale=2)
+  private BigDecimal percentOff;
+
+  @Column(name="amount_off", precision=12, scale=2)
+  private BigDecimal amountOff;
+
+  @Column(name="min_subtotal", precision=12, scale=2)
+  private BigDecimal minSubtotal;
+
+  @Column(name="starts_at")
+  private LocalDateTime startsAt;
+
+  @Column(name="ends_at")
+  private LocalDateTime endsAt;
+
+  @Column(name="happy_hour_start")
+  private LocalTime happyHourStart;
+
+  @Column(name="happy_hour_end")
+  private LocalTime happyHourEnd;
+
+  @Column(name="is_active", nullable=false)
+  @Builder.Default
+  private Boolean isActive = true;
+
+  @Column(name="updated_at", insertable=false, updatable=false)
+  private LocalDateTime updatedAt;
+
+  public PromotionRule toRule() {
+    return new PromotionRule(id, name, type, productId, comboProductId, categoryId, voucherCode,
+        percentOff, amountOff, minSubtotal, startsAt, endsAt, happyHourStart, happyHourEnd);
+  }
+}
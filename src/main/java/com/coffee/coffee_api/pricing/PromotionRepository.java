@@ -0,0 +1,31 @@
+package com.coffee.coffee_api.pricing;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * PromotionRepository
+ *
+ * CÁC METHOD:
+ * - findByIsActiveTrue(): nạp toàn bộ khuyến mãi đang bật để biên dịch.
+ * - fingerprint(): COUNT + checksum BIT_XOR(CRC32(id@updated_at)) của cả bảng; không đổi → PricingEngine bỏ qua reload.
+ *   Không dùng MAX(updated_at): updated_at là lúc chạy câu UPDATE chứ không phải lúc commit, transaction dài
+ *   commit sau một sửa đổi mới hơn sẽ không làm MAX đổi. Checksum đổi khi BẤT KỲ dòng nào đổi updated_at,
+ *   không phụ thuộc thứ tự commit.
+ */
+public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+    List<Promotion> findByIsActiveTrue();
+
+    @Query(value = """
+            SELECT COUNT(*) AS count,
+                   CAST(COALESCE(BIT_XOR(CRC32(CONCAT(id, '@', updated_at))), 0) AS SIGNED) AS checksum
+            FROM promotions
+            """, nativeQuery = true)
+    Fingerprint fingerprint();
+
+    interface Fingerprint {
+        long getCount();
+        long getChecksum();
+    }
+}
@@ -0,0 +1,26 @@
+package com.coffee.coffee_api.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Dữ liệu 1 khuyến mãi ở dạng thuần (không phải entity) làm đầu vào cho PricingRules.compile().
+ * Các trường không dùng cho type tương ứng để null.
+ */
+public record PromotionRule(
+    long id,
+    String name,
+    PromotionType type,
+    Long productId,
+    Long comboProductId,
+    Long categoryId,
+    String voucherCode,
+    BigDecimal percentOff,
+    BigDecimal amountOff,
+    BigDecimal minSubtotal,
+    LocalDateTime startsAt,
+    LocalDateTime endsAt,
+    LocalTime happyHourStart,
+    LocalTime happyHourEnd
+) {}
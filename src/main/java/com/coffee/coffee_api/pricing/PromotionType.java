@@ -0,0 +1,11 @@
+package com.coffee.coffee_api.pricing;
+
+/**
+ * Loại khuyến mãi, khớp cột promotions.type (V4__create_promotions.sql).
+ * - PRODUCT_PERCENT / CATEGORY_PERCENT: giảm % theo món / theo danh mục (có thể giới hạn happy hour).
+ * - COMBO: mua product_id + combo_product_id cùng lúc → giảm amount_off mỗi cặp.
+ * - VOUCHER: nhập mã → giảm % hoặc số tiền trên cả giỏ (có min_subtotal).
+ */
+public enum PromotionType {
+    PRODUCT_PERCENT, CATEGORY_PERCENT, COMBO, VOUCHER
+}
@@ -0,0 +1,34 @@
+CREATE TABLE promotions (
+  id               BIGINT PRIMARY KEY AUTO_INCREMENT,
+  name             VARCHAR(160)   NOT NULL,
+  type             ENUM('PRODUCT_PERCENT','CATEGORY_PERCENT','COMBO','VOUCHER') NOT NULL,
+
+  -- Phạm vi áp dụng (tuỳ type)
+  product_id       BIGINT NULL,           -- PRODUCT_PERCENT, COMBO (món thứ nhất)
+  combo_product_id BIGINT NULL,           -- COMBO (món thứ hai)
+  category_id      BIGINT NULL,           -- CATEGORY_PERCENT
+  voucher_code     VARCHAR(32) NULL,      -- VOUCHER
+
+  -- Mức giảm: percent_off (%) hoặc amount_off (số tiền)
+  percent_off      DECIMAL(5,2)  NULL,
+  amount_off       DECIMAL(12,2) NULL,
+  min_subtotal     DECIMAL(12,2) NULL,    -- VOUCHER: giá trị đơn tối thiểu
+
+  -- Thời gian hiệu lực; happy hour lặp lại mỗi ngày (có thể qua nửa đêm)
+  starts_at        DATETIME NULL,
+  ends_at          DATETIME NULL,
+  happy_hour_start TIME NULL,
+  happy_hour_end   TIME NULL,
+
+  is_active        TINYINT(1) NOT NULL DEFAULT 1,
+  created_at       DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  -- lưu tới mili giây: PricingEngine so checksum (id, updated_at) để biết có cần reload, DATETIME (giây)
+  -- sẽ bỏ lỡ dòng bị sửa 2 lần trong cùng giây
+  updated_at       DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+
+  UNIQUE KEY uq_promotions_voucher (voucher_code),
+  KEY idx_promotions_active (is_active, updated_at),
+  FOREIGN KEY (product_id) REFERENCES products(id),
+  FOREIGN KEY (combo_product_id) REFERENCES products(id),
+  FOREIGN KEY (category_id) REFERENCES categories(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
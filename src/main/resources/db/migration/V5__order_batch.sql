@@ -0,0 +1,18 @@
+-- Quét keyset theo (status, created_at) cho batch chuyển trạng thái / huỷ đơn PENDING quá hạn
+CREATE INDEX idx_orders_status_created ON orders(status, created_at);
+
+-- Checkpoint của batch job: chạy lại sẽ tiếp tục từ (last_created_at, last_id)
+CREATE TABLE batch_checkpoints (
+  job_name        VARCHAR(64) NOT NULL,
+  from_status     VARCHAR(16) NOT NULL,
+  to_status       VARCHAR(16) NOT NULL,
+  cutoff          DATETIME    NOT NULL,          -- chỉ xử lý đơn có created_at < cutoff
+  last_created_at DATETIME    NULL,
+  last_id         BIGINT      NOT NULL DEFAULT 0,
+  processed       BIGINT      NOT NULL DEFAULT 0,
+  pass            INT         NOT NULL DEFAULT 1, -- lượt quét thứ mấy (quét lại từ đầu để nhặt đơn bị SKIP LOCKED)
+  skipped_locked  BIGINT      NOT NULL DEFAULT 0, -- số đơn còn phù hợp nhưng bị bỏ qua do đang bị lock ở cuối lượt
+  state           ENUM('RUNNING','DONE','FAILED') NOT NULL DEFAULT 'RUNNING',
+  updated_at      DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (job_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
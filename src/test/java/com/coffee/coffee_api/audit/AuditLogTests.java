@@ -0,0 +1,147 @@
+package com.coffee.coffee_api.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void writesRecordsThatReaderCanQuery() throws Exception {
+		AuditLog audit = new AuditLog(dir.toString(), 4096, 64, 10, 16, 0);
+		audit.start();
+		for (long i = 0; i < 500; i++) {
+			while (!audit.publish(i % 2 == 0 ? AuditEventType.LOGIN_SUCCESS : AuditEventType.LOGIN_FAILED,
+					i, null, "user" + i + "@coffee.local")) {
+				Thread.onSpinWait();
+			}
+		}
+		audit.stop();
+
+		List<AuditRecord> all = AuditLogReader.query(dir, r -> true);
+		assertEquals(500, all.size());
+		assertEquals(500, audit.written());
+		assertEquals("user0@coffee.local", all.get(0).detail());
+		assertEquals(-1, all.get(0).targetId());
+
+		List<AuditRecord> failed = AuditLogReader.query(dir, r -> r.type() == AuditEventType.LOGIN_FAILED);
+		assertEquals(250, failed.size());
+		assertTrue(AuditLogReader.segments(dir).size() > 1, "segment nhỏ phải được xoay vòng");
+	}
+
+	@Test
+	void rotationKeepsOnlyMaxSegments() throws Exception {
+		AuditLog audit = new AuditLog(dir.toString(), 4096, 64, 10, 16, 3);
+		audit.start();
+		for (long i = 0; i < 500; i++) {
+			while (!audit.publish(AuditEventType.LOGIN_SUCCESS, i, null, "user" + i + "@coffee.local")) {
+				Thread.onSpinWait();
+			}
+		}
+		audit.stop();
+
+		List<Path> kept = AuditLogReader.segments(dir);
+		assertEquals(3, kept.size());
+		assertTrue(AuditLogReader.lastSegmentIndex(dir) > 3, "phải xoay vòng quá 3 segment rồi xoá bớt");
+		// segment mới nhất còn nguyên → record cuối cùng vẫn đọc được
+		List<AuditRecord> records = AuditLogReader.query(dir, r -> true);
+		assertEquals("user499@coffee.local", records.get(records.size() - 1).detail());
+	}
+
+	@Test
+	void restartOpensNewSegment() throws Exception {
+		AuditLog first = new AuditLog(dir.toString(), 1 << 16, 64, 10, 16, 0);
+		first.start();
+		first.publish(AuditEventType.REGISTER, 1L, 1L, "a@coffee.local");
+		first.stop();
+
+		AuditLog second = new AuditLog(dir.toString(), 1 << 16, 64, 10, 16, 0);
+		second.start();
+		second.publish(AuditEventType.REGISTER, 2L, 2L, "b@coffee.local");
+		second.stop();
+
+		assertEquals(2, AuditLogReader.segments(dir).size());
+		assertEquals(2, AuditLogReader.query(dir, r -> true).size());
+	}
+
+	@Test
+	void publishAfterStopIsDropped() throws Exception {
+		AuditLog audit = new AuditLog(dir.toString(), 1 << 16, 64, 10, 16, 0);
+		audit.start();
+		audit.stop();
+
+		assertFalse(audit.publish(AuditEventType.LOGIN_SUCCESS, 1L, 1L, null));
+		assertEquals(0, audit.published());
+		assertEquals(1, audit.dropped());
+	}
+
+	@Test
+	void stopRacingPublishersLosesNothingCountedAsPublished() throws Exception {
+		AuditLog audit = new AuditLog(dir.toString(), 1 << 16, 1024, 10, 16, 0);
+		audit.start();
+		AtomicBoolean go = new AtomicBoolean(true);
+		AtomicLong accepted = new AtomicLong();
+		AtomicLong attempts = new AtomicLong();
+		Thread[] producers = new Thread[4];
+		for (int t = 0; t < producers.length; t++) {
+			producers[t] = new Thread(() -> {
+				while (go.get()) {
+					attempts.incrementAndGet();
+					if (audit.publish(AuditEventType.LOGIN_SUCCESS, 1L, null, null)) accepted.incrementAndGet();
+				}
+			});
+			producers[t].start();
+		}
+		Thread.sleep(50);
+		audit.stop();
+		Thread.sleep(20);
+		go.set(false);
+		for (Thread p : producers) p.join();
+
+		assertEquals(accepted.get(), audit.published());
+		assertEquals(audit.published(), audit.written());
+		assertEquals(attempts.get(), audit.published() + audit.dropped());
+		assertEquals(audit.written(), AuditLogReader.query(dir, r -> true).size());
+	}
+
+	@Test
+	void retriesOpeningSegmentAfterFailure() throws Exception {
+		Path blocked = dir.resolve("audit");
+		Files.writeString(blocked, "không phải thư mục");
+		AuditLog audit = new AuditLog(blocked.toString(), 1 << 16, 64, 10, 16, 0);
+		audit.start();
+		audit.publish(AuditEventType.LOGIN_FAILED, null, null, "lost");
+		while (audit.dropped() == 0) {
+			Thread.sleep(5);
+		}
+
+		Files.delete(blocked);
+		Thread.sleep(250); // > backoff đầu tiên (100 ms)
+		audit.publish(AuditEventType.LOGIN_FAILED, null, null, "kept");
+		audit.stop();
+
+		assertEquals(1, audit.written());
+		assertEquals("kept", AuditLogReader.query(blocked, r -> true).get(0).detail());
+	}
+
+	@Test
+	void fullRingDropsInsteadOfBlocking() {
+		AuditLog audit = new AuditLog(dir.toString(), 1 << 16, 4, 10, 16, 0); // writer chưa chạy
+		for (int i = 0; i < 4; i++) {
+			assertTrue(audit.publish(AuditEventType.LOGIN_FAILED, null, null, null));
+		}
+
+		assertFalse(audit.publish(AuditEventType.LOGIN_FAILED, null, null, null));
+		assertEquals(1, audit.dropped());
+	}
+}
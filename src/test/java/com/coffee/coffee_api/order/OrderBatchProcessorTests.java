@@ -0,0 +1,291 @@
+package com.coffee.coffee_api.order;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OrderBatchProcessorTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 1, 12, 0);
+	private static final LocalDateTime CUTOFF = NOW.minusHours(1);
+
+	private JdbcTemplate jdbc;
+	private TransactionTemplate tx;
+	private ApplicationEventPublisher events;
+	private BatchCheckpointStore store;
+	private OrderBatchProcessor processor;
+
+	/** Mỗi phần tử = id của các đơn mà 1 câu SELECT ... FOR UPDATE SKIP LOCKED trả về; hết → rỗng. */
+	private final Deque<long[]> chunks = new ArrayDeque<>();
+	/** Bảng batch_checkpoints giả: find() đọc, start()/resume() ghi. */
+	private final Map<String, BatchCheckpoint> table = new ConcurrentHashMap<>();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		jdbc = mock(JdbcTemplate.class);
+		tx = mock(TransactionTemplate.class);
+		events = mock(ApplicationEventPublisher.class);
+		store = mock(BatchCheckpointStore.class);
+
+		when(tx.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(jdbc.queryForObject("SELECT CURRENT_TIMESTAMP", LocalDateTime.class)).thenReturn(NOW);
+		when(jdbc.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(Object[].class))).thenReturn(0L);
+		when(jdbc.query(startsWith("SELECT id"), any(RowMapper.class), any(Object[].class))).thenAnswer(inv -> {
+			long[] ids = chunks.isEmpty() ? new long[0] : chunks.poll();
+			RowMapper<?> mapper = inv.getArgument(1);
+			List<Object> rows = new ArrayList<>();
+			for (int i = 0; i < ids.length; i++) {
+				rows.add(mapper.mapRow(row(ids[i]), i));
+			}
+			return rows;
+		});
+		// mọi đơn đã chọn đều đổi được (đã khoá FOR UPDATE): số hàng = số tham số trừ to/from
+		when(jdbc.update(startsWith("UPDATE orders"), any(Object[].class)))
+				.thenAnswer(inv -> ((Object[]) inv.getRawArguments()[1]).length - 2);
+		when(store.find(anyString())).thenAnswer(inv -> Optional.ofNullable(table.get(inv.<String>getArgument(0))));
+		when(store.start(any())).thenAnswer(inv -> {
+			OrderTransitionJob job = inv.getArgument(0);
+			return put(new BatchCheckpoint(job.name(), job.from(), job.to(), job.createdBefore(), null, 0, 0, 1, 0,
+					BatchState.RUNNING));
+		});
+		when(store.resume(any())).thenAnswer(inv -> put(inv.<BatchCheckpoint>getArgument(0).running()));
+
+		processor = newProcessor(2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		processor.shutdown();
+	}
+
+	private BatchCheckpoint put(BatchCheckpoint cp) {
+		table.put(cp.jobName(), cp);
+		return cp;
+	}
+
+	private OrderBatchProcessor newProcessor(int maxPasses) {
+		return new OrderBatchProcessor(jdbc, tx, events, store, 200, 20, 100, 1.0, 30, maxPasses, 0);
+	}
+
+	private static ResultSet row(long id) throws Exception {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getLong("id")).thenReturn(id);
+		when(rs.getLong("user_id")).thenReturn(100 + id);
+		when(rs.getObject("created_at", LocalDateTime.class)).thenReturn(CUTOFF.minusMinutes(100 - id));
+		return rs;
+	}
+
+	private static OrderTransitionJob job(String name) {
+		return new OrderTransitionJob(name, OrderStatus.CONFIRMED, OrderStatus.COMPLETED, CUTOFF);
+	}
+
+	// ===== logic thuần =====
+
+	@Test
+	void transitionsFollowOrderLifecycle() {
+		assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.CANCELLED));
+		assertTrue(OrderStatus.CONFIRMED.canTransitionTo(OrderStatus.SHIPPING));
+		assertTrue(OrderStatus.SHIPPING.canTransitionTo(OrderStatus.COMPLETED));
+		assertFalse(OrderStatus.PENDING.canTransitionTo(OrderStatus.COMPLETED));
+		assertFalse(OrderStatus.SHIPPING.canTransitionTo(OrderStatus.CANCELLED));
+		assertFalse(OrderStatus.COMPLETED.canTransitionTo(OrderStatus.CANCELLED));
+		assertFalse(OrderStatus.CANCELLED.canTransitionTo(OrderStatus.PENDING));
+	}
+
+	@Test
+	void chunkSizeAdaptsToTargetWithinBounds() {
+		long target = TimeUnit.MILLISECONDS.toNanos(100);
+		assertEquals(50, OrderBatchProcessor.nextChunkSize(100, target * 2, target, 20, 200));
+		assertEquals(20, OrderBatchProcessor.nextChunkSize(30, target * 2, target, 20, 200));
+		assertEquals(200, OrderBatchProcessor.nextChunkSize(100, target / 4, target, 20, 200));
+		assertEquals(200, OrderBatchProcessor.nextChunkSize(150, target / 4, target, 20, 200));
+		assertEquals(100, OrderBatchProcessor.nextChunkSize(100, target * 3 / 4, target, 20, 200));
+	}
+
+	@Test
+	void pauseKeepsDutyCycle() {
+		long work = TimeUnit.MILLISECONDS.toNanos(20);
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(80), OrderBatchProcessor.pauseNanos(work, 0.2));
+		assertEquals(work, OrderBatchProcessor.pauseNanos(work, 0.5));
+		assertEquals(0, OrderBatchProcessor.pauseNanos(work, 1.0));
+	}
+
+	@Test
+	void checkpointAdvancesAndRestartsPass() {
+		BatchCheckpoint cp = new BatchCheckpoint("j", OrderStatus.PENDING, OrderStatus.CANCELLED, CUTOFF,
+				null, 0, 0, 1, 0, BatchState.RUNNING);
+
+		BatchCheckpoint advanced = cp.advance(NOW, 42, 7).advance(NOW, 50, 3);
+		assertEquals(50, advanced.lastId());
+		assertEquals(NOW, advanced.lastCreatedAt());
+		assertEquals(10, advanced.processed());
+
+		BatchCheckpoint second = advanced.nextPass(4);
+		assertNull(second.lastCreatedAt());
+		assertEquals(0, second.lastId());
+		assertEquals(10, second.processed());
+		assertEquals(2, second.pass());
+		assertEquals(4, second.skippedLocked());
+		assertEquals(CUTOFF, second.cutoff());
+	}
+
+	// ===== process() =====
+
+	@Test
+	void processesChunksUntilNothingLeft() {
+		chunks.add(new long[] { 1, 2 });
+		chunks.add(new long[] { 3 });
+
+		OrderBatchProcessor.Result result = processor.process(job("j"));
+
+		assertEquals(new OrderBatchProcessor.Result("j", 3, 0, true), result);
+		verify(events, times(3)).publishEvent(any(OrderStatusChangedEvent.class));
+		verify(store).save(argThat(cp -> cp.lastId() == 3 && cp.processed() == 3));
+		verify(store).finish("j", 0);
+	}
+
+	@Test
+	void rescansLockedOrdersUpToMaxPasses() {
+		doReturn(1L).when(jdbc).queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(Object[].class));
+
+		OrderBatchProcessor.Result result = processor.process(job("j"));
+
+		assertEquals(new OrderBatchProcessor.Result("j", 0, 1, true), result);
+		verify(store).save(argThat(cp -> cp.pass() == 2 && cp.skippedLocked() == 1 && cp.lastCreatedAt() == null));
+		verify(jdbc, times(2)).query(startsWith("SELECT id"), any(RowMapper.class), any(Object[].class));
+		verify(store).finish("j", 1);
+	}
+
+	@Test
+	void secondPassPicksUpOrdersThatWereLocked() {
+		doReturn(1L, 0L).when(jdbc).queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class), any(Object[].class));
+		chunks.add(new long[] { 1 });
+		chunks.add(new long[0]);
+		chunks.add(new long[] { 2 });
+
+		OrderBatchProcessor.Result result = processor.process(job("j"));
+
+		assertEquals(new OrderBatchProcessor.Result("j", 2, 0, true), result);
+		verify(store).finish("j", 0);
+	}
+
+	@Test
+	void updateCountMismatchFailsChunk() {
+		doReturn(1).when(jdbc).update(startsWith("UPDATE orders"), any(Object[].class));
+		chunks.add(new long[] { 1, 2 });
+
+		assertThrows(IllegalStateException.class, () -> processor.process(job("j")));
+		verify(events, never()).publishEvent(any());
+		verify(store, never()).save(any());
+	}
+
+	// ===== submit / lịch / khởi động: mỗi tên job chỉ 1 lượt chờ hoặc chạy =====
+
+	@Test
+	void rejectsInvalidTransition() {
+		OrderTransitionJob bad = new OrderTransitionJob("j", OrderStatus.COMPLETED, OrderStatus.PENDING, CUTOFF);
+		assertThrows(IllegalArgumentException.class, () -> processor.submit(bad));
+		verify(store, never()).start(any());
+	}
+
+	@Test
+	void queuedOrRunningJobsAreNotQueuedTwice() throws Exception {
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(inv -> {
+			entered.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+		}).when(tx).execute(any());
+		when(store.findRunning()).thenReturn(List.of(checkpoint("a"), checkpoint("c")));
+
+		processor.submit(job("a"));
+		assertTrue(entered.await(5, TimeUnit.SECONDS));
+		assertThrows(IllegalStateException.class, () -> processor.submit(job("a")));   // đang chạy
+
+		processor.submit(job("b"));
+		assertThrows(IllegalStateException.class, () -> processor.submit(job("b")));   // đang chờ
+
+		processor.cancelStalePending();
+		processor.cancelStalePending();
+		processor.resumeInterrupted();                                                 // "a" đang chạy → bỏ qua
+
+		release.countDown();
+		verify(store, timeout(5000)).finish(eq("c"), anyLong());
+		verify(store).finish(eq("a"), anyLong());
+		verify(store).finish(eq("b"), anyLong());
+		verify(store).finish(eq(OrderBatchProcessor.STALE_PENDING_JOB), anyLong());
+		verify(jdbc, times(1)).queryForObject("SELECT CURRENT_TIMESTAMP", LocalDateTime.class);
+	}
+
+	@Test
+	void failedRunIsMarkedFailedAndReleasesJobName() {
+		doThrow(new CannotAcquireLockException("lock wait timeout"))
+				.doAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+				.when(tx).execute(any());
+
+		processor.submit(job("a"));
+		processor.submit(job("b"));
+		verify(store, timeout(5000)).finish(eq("b"), anyLong());
+
+		verify(store).fail("a");
+		verify(store, never()).finish(eq("a"), anyLong());
+		assertDoesNotThrow(() -> processor.submit(job("a")));
+	}
+
+	@Test
+	void resubmitResumesUnfinishedCheckpoint() {
+		BatchCheckpoint failed = new BatchCheckpoint("a", OrderStatus.CONFIRMED, OrderStatus.COMPLETED,
+				CUTOFF.minusDays(1), CUTOFF.minusDays(2), 5, 10, 1, 0, BatchState.FAILED);
+		put(failed);
+
+		BatchCheckpoint cp = processor.submit(job("a"));
+
+		assertEquals(BatchState.RUNNING, cp.state());
+		assertEquals(5, cp.lastId());
+		assertEquals(10, cp.processed());
+		assertEquals(CUTOFF.minusDays(1), cp.cutoff());
+		verify(store).resume(failed);
+		verify(store, never()).start(any());
+	}
+
+	@Test
+	void finishedCheckpointStartsNewRun() {
+		BatchCheckpoint done = new BatchCheckpoint("a", OrderStatus.CONFIRMED, OrderStatus.COMPLETED,
+				CUTOFF.minusDays(1), CUTOFF.minusDays(2), 5, 10, 1, 0, BatchState.DONE);
+		put(done);
+
+		BatchCheckpoint cp = processor.submit(job("a"));
+
+		assertEquals(0, cp.processed());
+		assertEquals(CUTOFF, cp.cutoff());
+		verify(store).start(job("a"));
+	}
+
+	private static BatchCheckpoint checkpoint(String name) {
+		return new BatchCheckpoint(name, OrderStatus.CONFIRMED, OrderStatus.COMPLETED, CUTOFF, null, 0, 0, 1, 0,
+				BatchState.RUNNING);
+	}
+}
@@ -0,0 +1,95 @@
+package com.coffee.coffee_api.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderHistoryCacheTests {
+
+	@Test
+	void hitAfterFirstLoad() {
+		OrderHistoryCache cache = new OrderHistoryCache(100, 1 << 20, 4);
+		AtomicInteger loads = new AtomicInteger();
+
+		cache.get(1L, 0, 20, () -> { loads.incrementAndGet(); return new byte[] { 1 }; });
+		byte[] second = cache.get(1L, 0, 20, () -> { loads.incrementAndGet(); return new byte[] { 2 }; });
+
+		assertEquals(1, loads.get());
+		assertArrayEquals(new byte[] { 1 }, second);
+		assertEquals(0.5, cache.hitRatio());
+	}
+
+	@Test
+	void invalidateOnlyDropsThatUser() {
+		OrderHistoryCache cache = new OrderHistoryCache(100, 1 << 20, 4);
+		cache.get(1L, 0, 20, () -> new byte[] { 1 });
+		cache.get(2L, 0, 20, () -> new byte[] { 2 });
+
+		cache.invalidate(1L);
+
+		assertArrayEquals(new byte[] { 9 }, cache.get(1L, 0, 20, () -> new byte[] { 9 }));
+		assertArrayEquals(new byte[] { 2 }, cache.get(2L, 0, 20, () -> new byte[] { 8 }));
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		OrderHistoryCache cache = new OrderHistoryCache(100, 1 << 20, 4);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			Future<?>[] results = new Future<?>[8];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = pool.submit(() -> cache.get(7L, 0, 20, () -> {
+					loads.incrementAndGet();
+					try {
+						release.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return new byte[] { 7 };
+				}));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<?> f : results) {
+				assertArrayEquals(new byte[] { 7 }, (byte[]) f.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void loadRacingWithInvalidateIsNotCached() {
+		OrderHistoryCache cache = new OrderHistoryCache(100, 1 << 20, 4);
+		cache.get(3L, 0, 20, () -> {
+			cache.invalidate(3L); // đơn mới được đặt trong lúc đang load
+			return new byte[] { 1 };
+		});
+
+		assertArrayEquals(new byte[] { 2 }, cache.get(3L, 0, 20, () -> new byte[] { 2 }));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedUser() {
+		OrderHistoryCache cache = new OrderHistoryCache(2, 1 << 20, 4);
+		cache.get(1L, 0, 20, () -> new byte[] { 1 });
+		cache.get(2L, 0, 20, () -> new byte[] { 2 });
+		cache.get(1L, 0, 20, () -> new byte[] { 0 }); // chạm user 1 → user 2 là LRU
+		cache.get(3L, 0, 20, () -> new byte[] { 3 });
+
+		assertEquals(2, cache.userCount());
+		assertEquals(1, cache.evictions());
+		assertArrayEquals(new byte[] { 1 }, cache.get(1L, 0, 20, () -> new byte[] { 0 }));
+		assertEquals(2 * (1 + OrderHistoryCache.ENTRY_OVERHEAD), cache.estimatedBytes());
+	}
+}
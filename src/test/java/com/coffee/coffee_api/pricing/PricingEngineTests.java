@@ -0,0 +1,62 @@
+package com.coffee.coffee_api.pricing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class PricingEngineTests {
+
+	private PromotionRepository repo;
+	private PricingEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		repo = mock(PromotionRepository.class);
+		when(repo.findByIsActiveTrue()).thenReturn(List.of());
+		engine = new PricingEngine(repo, "Asia/Ho_Chi_Minh", 5);
+	}
+
+	private static PromotionRepository.Fingerprint fp(long count, long checksum) {
+		return new PromotionRepository.Fingerprint() {
+			@Override public long getCount() { return count; }
+			@Override public long getChecksum() { return checksum; }
+		};
+	}
+
+	@Test
+	void skipsReloadWhileFingerprintUnchanged() {
+		when(repo.fingerprint()).thenReturn(fp(3, 42));
+
+		engine.reloadIfChanged();
+		engine.reloadIfChanged();
+		engine.reloadIfChanged();
+
+		verify(repo, times(1)).findByIsActiveTrue();
+	}
+
+	@Test
+	void reloadsWhenChecksumChangesWithSameCount() {
+		// sửa đổi commit muộn (updated_at cũ hơn MAX) vẫn làm checksum đổi
+		when(repo.fingerprint()).thenReturn(fp(3, 42), fp(3, 7));
+
+		engine.reloadIfChanged();
+		engine.reloadIfChanged();
+
+		verify(repo, times(2)).findByIsActiveTrue();
+	}
+
+	@Test
+	void forcesFullReloadEveryNTicks() {
+		when(repo.fingerprint()).thenReturn(fp(3, 42));
+
+		for (int i = 0; i < 11; i++) {
+			engine.reloadIfChanged();
+		}
+
+		// lượt 1 nạp lần đầu, sau đó cứ 5 lượt không đổi thì nạp lại: lượt 6 và 11
+		verify(repo, times(3)).findByIsActiveTrue();
+	}
+}
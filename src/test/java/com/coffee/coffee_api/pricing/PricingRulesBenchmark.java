@@ -0,0 +1,96 @@
+package com.coffee.coffee_api.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark PricingRules.price() theo kích thước bộ khuyến mãi (không phải unit test, chạy tay):
+ *
+ *   ./mvnw test-compile
+ *   java -cp target/classes:target/test-classes com.coffee.coffee_api.pricing.PricingRulesBenchmark
+ *
+ * Mỗi bộ rule gồm 40% giảm theo món, 20% theo danh mục (một nửa là happy hour), 30% combo, 10% voucher;
+ * giỏ hàng 6 dòng ngẫu nhiên trên 2000 sản phẩm / 50 danh mục.
+ */
+public class PricingRulesBenchmark {
+
+    private static final int PRODUCTS = 2_000;
+    private static final int CATEGORIES = 50;
+    private static final int CARTS = 1_024;
+    // voucher thứ nhất do rules() sinh ra (i % 10 == 9 → "V" + i), có ở mọi kích thước ≥ 10
+    private static final String VOUCHER = "V9";
+
+    public static void main(String[] args) {
+        int[] sizes = { 10, 100, 1_000, 10_000, 100_000 };
+        System.out.printf("%10s %12s %12s%n", "rules", "compile ms", "ns/cart");
+        for (int size : sizes) {
+            run(size);
+        }
+    }
+
+    private static void run(int size) {
+        Random rnd = new Random(size);
+        List<PromotionRule> rules = rules(size, rnd);
+        long t0 = System.nanoTime();
+        PricingRules compiled = PricingRules.compile(rules, ZoneId.of("Asia/Ho_Chi_Minh"));
+        long compileNs = System.nanoTime() - t0;
+
+        List<List<CartLine>> carts = new ArrayList<>(CARTS);
+        for (int i = 0; i < CARTS; i++) {
+            carts.add(cart(rnd));
+        }
+        long now = System.currentTimeMillis();
+
+        long sink = 0;
+        for (int i = 0; i < 200_000; i++) {        // warmup
+            sink += compiled.price(carts.get(i & (CARTS - 1)), (i & 7) == 0 ? VOUCHER : null, now).applied().size();
+        }
+        int iterations = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += compiled.price(carts.get(i & (CARTS - 1)), (i & 7) == 0 ? VOUCHER : null, now).applied().size();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%10d %12.1f %12d   (sink=%d)%n", size, compileNs / 1e6, elapsed / iterations, sink);
+    }
+
+    private static List<PromotionRule> rules(int size, Random rnd) {
+        List<PromotionRule> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int kind = i % 10;
+            BigDecimal pct = BigDecimal.valueOf(5 + rnd.nextInt(30));
+            long product = 1 + rnd.nextInt(PRODUCTS);
+            long category = 1 + rnd.nextInt(CATEGORIES);
+            boolean hh = rnd.nextBoolean();
+            PromotionRule r;
+            if (kind < 4) {
+                r = new PromotionRule(i, "p" + i, PromotionType.PRODUCT_PERCENT, product, null, null, null,
+                        pct, null, null, null, null, null, null);
+            } else if (kind < 6) {
+                r = new PromotionRule(i, "c" + i, PromotionType.CATEGORY_PERCENT, null, null, category, null,
+                        pct, null, null, null, null, hh ? LocalTime.of(14, 0) : null, hh ? LocalTime.of(17, 0) : null);
+            } else if (kind < 9) {
+                r = new PromotionRule(i, "combo" + i, PromotionType.COMBO, product, 1L + rnd.nextInt(PRODUCTS), null,
+                        null, null, BigDecimal.valueOf(5_000), null, null, null, null, null);
+            } else {
+                r = new PromotionRule(i, "v" + i, PromotionType.VOUCHER, null, null, null, "V" + i,
+                        BigDecimal.TEN, null, BigDecimal.valueOf(50_000), null, null, null, null);
+            }
+            out.add(r);
+        }
+        return out;
+    }
+
+    private static List<CartLine> cart(Random rnd) {
+        List<CartLine> lines = new ArrayList<>(6);
+        for (int i = 0; i < 6; i++) {
+            lines.add(new CartLine(1 + rnd.nextInt(PRODUCTS), 1L + rnd.nextInt(CATEGORIES), 1 + rnd.nextInt(3),
+                    BigDecimal.valueOf(20_000 + rnd.nextInt(100) * 1_000L)));
+        }
+        return List.of(lines.toArray(CartLine[]::new));
+    }
+}
@@ -0,0 +1,113 @@
+package com.coffee.coffee_api.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingRulesTests {
+
+	// 2025-01-01 08:00 UTC
+	private static final long MORNING = LocalDateTime.of(2025, 1, 1, 8, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+	// 2025-01-01 15:30 UTC
+	private static final long AFTERNOON = LocalDateTime.of(2025, 1, 1, 15, 30).toInstant(ZoneOffset.UTC).toEpochMilli();
+
+	private static PromotionRule percent(long id, PromotionType type, Long productId, Long categoryId, String pct,
+										 LocalTime hhStart, LocalTime hhEnd) {
+		return new PromotionRule(id, "p" + id, type, productId, null, categoryId, null,
+				new BigDecimal(pct), null, null, null, null, hhStart, hhEnd);
+	}
+
+	private static CartLine line(long productId, long categoryId, int qty, String price) {
+		return new CartLine(productId, categoryId, qty, new BigDecimal(price));
+	}
+
+	@Test
+	void bestPercentBetweenProductAndCategory() {
+		PricingRules rules = PricingRules.compile(List.of(
+				percent(1, PromotionType.PRODUCT_PERCENT, 10L, null, "5", null, null),
+				percent(2, PromotionType.CATEGORY_PERCENT, null, 2L, "20", null, null)), ZoneOffset.UTC);
+
+		PricedCart cart = rules.price(List.of(line(10, 2, 2, "45000")), null, MORNING);
+
+		assertEquals(new BigDecimal("90000.00"), cart.subtotal());
+		assertEquals(new BigDecimal("18000.00"), cart.discount());
+		assertEquals(2L, cart.applied().get(0).promotionId());
+	}
+
+	@Test
+	void happyHourOnlyInsideWindow() {
+		PricingRules rules = PricingRules.compile(List.of(
+				percent(1, PromotionType.CATEGORY_PERCENT, null, 2L, "30", LocalTime.of(14, 0), LocalTime.of(17, 0))),
+				ZoneOffset.UTC);
+		List<CartLine> lines = List.of(line(10, 2, 1, "45000"));
+
+		assertEquals(new BigDecimal("0.00"), rules.price(lines, null, MORNING).discount());
+		assertEquals(new BigDecimal("13500.00"), rules.price(lines, null, AFTERNOON).discount());
+	}
+
+	@Test
+	void comboUnitsDoNotGetPercentAgain() {
+		PricingRules rules = PricingRules.compile(List.of(
+				new PromotionRule(1, "latte + bánh", PromotionType.COMBO, 10L, 20L, null, null,
+						null, new BigDecimal("10000"), null, null, null, null, null),
+				percent(2, PromotionType.PRODUCT_PERCENT, 10L, null, "10", null, null)), ZoneOffset.UTC);
+
+		PricedCart cart = rules.price(List.of(line(10, 2, 3, "45000"), line(20, 3, 1, "30000")), null, MORNING);
+
+		// 1 cặp combo (-10000) + 2 latte còn lại giảm 10% (-9000)
+		assertEquals(new BigDecimal("19000.00"), cart.discount());
+		assertEquals(new BigDecimal("146000.00"), cart.total());
+	}
+
+	@Test
+	void comboOfSameProductNeedsTwoUnitsPerPair() {
+		PricingRules rules = PricingRules.compile(List.of(
+				new PromotionRule(1, "2 latte", PromotionType.COMBO, 10L, 10L, null, null,
+						null, new BigDecimal("10000"), null, null, null, null, null),
+				percent(2, PromotionType.PRODUCT_PERCENT, 10L, null, "10", null, null)), ZoneOffset.UTC);
+
+		PricedCart one = rules.price(List.of(line(10, 2, 1, "45000")), null, MORNING);
+		PricedCart two = rules.price(List.of(line(10, 2, 2, "45000")), null, MORNING);
+		PricedCart three = rules.price(List.of(line(10, 2, 3, "45000")), null, MORNING);
+
+		// 1 ly: không đủ cặp → chỉ giảm 10%
+		assertEquals(new BigDecimal("4500.00"), one.discount());
+		// 2 ly: đúng 1 cặp combo
+		assertEquals(new BigDecimal("10000.00"), two.discount());
+		// 3 ly: 1 cặp combo + 1 ly giảm 10%
+		assertEquals(new BigDecimal("14500.00"), three.discount());
+	}
+
+	@Test
+	void voucherNeedsMinSubtotalAndValidCode() {
+		PricingRules rules = PricingRules.compile(List.of(
+				new PromotionRule(1, "GIAM20K", PromotionType.VOUCHER, null, null, null, "giam20k",
+						null, new BigDecimal("20000"), new BigDecimal("100000"), null, null, null, null)),
+				ZoneOffset.UTC);
+
+		PricedCart small = rules.price(List.of(line(10, 2, 1, "45000")), "GIAM20K", MORNING);
+		PricedCart big = rules.price(List.of(line(10, 2, 3, "45000")), " giam20k ", MORNING);
+		PricedCart unknown = rules.price(List.of(line(10, 2, 3, "45000")), "KHONGCO", MORNING);
+
+		assertFalse(small.voucherAccepted());
+		assertTrue(big.voucherAccepted());
+		assertEquals(new BigDecimal("115000.00"), big.total());
+		assertFalse(unknown.voucherAccepted());
+	}
+
+	@Test
+	void invalidRulesAreSkipped() {
+		PricingRules rules = PricingRules.compile(List.of(
+				percent(1, PromotionType.PRODUCT_PERCENT, null, null, "10", null, null),
+				percent(2, PromotionType.PRODUCT_PERCENT, 10L, null, "10", null, null)), ZoneOffset.UTC);
+
+		assertEquals(1, rules.size());
+		assertEquals(1, rules.skipped());
+	}
+}